@@ -0,0 +1,25 @@
+package net.mcmiracom.inertia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Scheduling and thinking for a world of enemy ships (nothing moves, so the schedule just keeps turning over)
+ *
+ * @author Aaron Jacobs
+ */
+public class AIBenchmark extends WorldBenchmark
+{
+	@Override
+	protected boolean ships()
+	{
+		return true;
+	}
+
+	@Benchmark
+	public int planAndRun()
+	{
+		Globals.aiScheduler.plan(Globals.physics);
+		Globals.aiScheduler.run(Globals.physics);
+		return Globals.aiScheduler.numThought;
+	}
+}
@@ -0,0 +1,101 @@
+package net.mcmiracom.inertia;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Checks that PhysicsState.step() allocates nothing once it's warmed up (garbage collections cause frame hitches)
+ *
+ * Steps a world of meteoroids and a world of (indestructible) enemy ships, and counts the bytes the thread allocates
+ * over several rounds of steps. An allocation on every step shows up in every round, so one-off allocations (like the
+ * JIT finishing a compilation) don't fail the check unless every round has one. Only the single threaded physics is
+ * checked (the parallel physics allocates its fork/join tasks). Exits with status 1 if a world allocates.
+ *
+ * Usage: java net.mcmiracom.inertia.AllocationCheck [bodies] [warmupSteps] [rounds] [stepsPerRound]
+ *
+ * @author Aaron Jacobs
+ */
+public class AllocationCheck
+{
+	public static final int DEFAULT_BODIES = 1000, DEFAULT_WARMUP_STEPS = 10000, DEFAULT_ROUNDS = 5, DEFAULT_STEPS_PER_ROUND = 1000;
+
+	/**
+	 * Steps a world, and finds the fewest bytes allocated per step over the rounds
+	 *
+	 * @param bean The bean that counts the allocated bytes
+	 * @param bodies The number of bodies
+	 * @param ships If the bodies should be enemy ships instead of meteoroids
+	 * @param warmupSteps The number of steps before measuring
+	 * @param rounds The number of rounds to measure
+	 * @param stepsPerRound The number of steps in each round
+	 * @return The fewest bytes allocated per step in a round
+	 */
+	private static double check(com.sun.management.ThreadMXBean bean, int bodies, boolean ships, int warmupSteps, int rounds, int stepsPerRound)
+	{
+		BenchmarkWorld world = new BenchmarkWorld(bodies, Globals.SMALL_WORLD, Globals.MEDIUM_QUALITY, ships);
+		PhysicsState state = Globals.physics;
+		long threadId = Thread.currentThread().getId();
+
+		for(int i = 0; i < warmupSteps; ++i)
+		{
+			state.step(Globals.timeStep);
+		}
+
+		double fewest = Double.MAX_VALUE;
+		for(int round = 0; round < rounds; ++round)
+		{
+			long allocatedBefore = bean.getThreadAllocatedBytes(threadId);
+			for(int i = 0; i < stepsPerRound; ++i)
+			{
+				state.step(Globals.timeStep);
+			}
+			long allocatedBytes = bean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+			double bytesPerStep = (double)allocatedBytes / stepsPerRound;
+			System.out.println(String.format("%-11s round %d: %.3f B/step", ships ? "Ships" : "Meteoroids", round + 1, bytesPerStep));
+			fewest = Math.min(fewest, bytesPerStep);
+		}
+
+		world.release();
+		return fewest;
+	}
+
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+
+		int bodies = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BODIES;
+		int warmupSteps = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_STEPS;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+		int stepsPerRound = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_STEPS_PER_ROUND;
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(!(threadBean instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean)threadBean).isThreadAllocatedMemorySupported())
+		{
+			System.out.println("This JVM can't count the bytes allocated by a thread");
+			System.exit(2);
+		}
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threadBean;
+		bean.setThreadAllocatedMemoryEnabled(true);
+
+		Globals.parallelPhysics = false;
+
+		boolean passed = true;
+		boolean[] worlds = {false, true};
+		for(int i = 0; i < worlds.length; ++i)
+		{
+			double bytesPerStep = check(bean, bodies, worlds[i], warmupSteps, rounds, stepsPerRound);
+			if(bytesPerStep > 0.0)
+			{
+				System.out.println(String.format("FAILED: %s allocate %.3f B/step", worlds[i] ? "ships" : "meteoroids", bytesPerStep));
+				passed = false;
+			}
+		}
+
+		if(!passed)
+		{
+			System.exit(1);
+		}
+		System.out.println("Passed: no allocations per step");
+	}
+}
@@ -0,0 +1,157 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A reproducible (seeded) world of bodies for the benchmarks, which can be put back the way it was after an operation
+ * changes it
+ *
+ * @author Aaron Jacobs
+ */
+public class BenchmarkWorld
+{
+	public static final long SEED = 20120501L;
+
+	private static BufferedImage meteoroidTexture, shipTexture;
+
+	protected final int numBodies;
+	protected final PhysObject[] bodies;
+
+	// The saved state of every body
+	private double[] x, y, vx, vy, ax, ay, mass, boundsWidth, boundsHeight;
+	private int[] health;
+	private BufferedImage[] textures;
+
+	/**
+	 * Builds a new world (replacing the one in Globals)
+	 *
+	 * @param numBodies The number of bodies
+	 * @param worldSize The size of the world
+	 * @param gridQuality The size of a GridNode
+	 * @param ships If the bodies should be (indestructible) enemy ships instead of meteoroids
+	 */
+	public BenchmarkWorld(int numBodies, int worldSize, int gridQuality, boolean ships)
+	{
+		if(meteoroidTexture == null)
+		{
+			Globals.textures = new HeadlessTextures();
+			Globals.loadImages();
+			meteoroidTexture = Globals.textures.load("meteoroid.png");
+			shipTexture = Globals.textures.load("ship.png");
+		}
+
+		Globals.levelSize = worldSize;
+		Globals.gridQuality = gridQuality;
+		Globals.gameOver = false;
+
+		GameObject.allGameObjects = new ArrayList<GameObject>();
+		Laser.clear();
+
+		Globals.camera = new Camera(0.0, 0.0, Globals.panelWidth, Globals.panelHeight);
+		Globals.physics = new PhysicsState();
+		Globals.grid = new Grid(worldSize, worldSize, gridQuality);
+		Globals.quadTree = new QuadTree(worldSize, Globals.openingAngle);
+
+		this.numBodies = numBodies;
+		bodies = new PhysObject[numBodies];
+
+		Random random = new Random(SEED);
+		for(int i = 0; i < numBodies; ++i)
+		{
+			PhysObject body;
+			if(ships)
+			{
+				body = new Enemy(Globals.DEFAULT_MASS, Integer.MAX_VALUE / 2); // Never destroyed (no explosions mid-benchmark)
+				body.setTexture(shipTexture, true);
+			}
+			else
+			{
+				body = new PhysObject(Globals.DEFAULT_MASS);
+				body.setTexture(meteoroidTexture, true);
+			}
+			body.setPosition(1 + (random.nextDouble() * (worldSize - 2)), 1 + (random.nextDouble() * (worldSize - 2)));
+			body.velocity.set((random.nextDouble() * 600) - 300, (random.nextDouble() * 600) - 300);
+			bodies[i] = body;
+		}
+
+		x = new double[numBodies];
+		y = new double[numBodies];
+		vx = new double[numBodies];
+		vy = new double[numBodies];
+		ax = new double[numBodies];
+		ay = new double[numBodies];
+		mass = new double[numBodies];
+		boundsWidth = new double[numBodies];
+		boundsHeight = new double[numBodies];
+		health = new int[numBodies];
+		textures = new BufferedImage[numBodies];
+
+		save();
+		restore();
+	}
+
+	/**
+	 * Remembers the current state of every body (restore() goes back to it)
+	 */
+	public void save()
+	{
+		for(int i = 0; i < numBodies; ++i)
+		{
+			PhysObject body = bodies[i];
+			x[i] = body.position.x;
+			y[i] = body.position.y;
+			vx[i] = body.velocity.x;
+			vy[i] = body.velocity.y;
+			ax[i] = body.acceleration.x;
+			ay[i] = body.acceleration.y;
+			mass[i] = body.mass;
+			boundsWidth[i] = body.bounds.getWidth();
+			boundsHeight[i] = body.bounds.getHeight();
+			textures[i] = body.texture;
+			if(body instanceof ControllableObject)
+			{
+				health[i] = ((ControllableObject)body).health;
+			}
+		}
+	}
+
+	/**
+	 * Puts every body back the way it was at the last save() (re-adding any that were removed), and re-sorts the grid
+	 */
+	public void restore()
+	{
+		Globals.physics.clear();
+		for(int i = 0; i < numBodies; ++i)
+		{
+			PhysObject body = bodies[i];
+			body.id = Globals.physics.add(body);
+			body.alive = true;
+			body.texture = textures[i];
+			body.bounds.setFrame(0.0, 0.0, boundsWidth[i], boundsHeight[i]);
+			body.setPosition(x[i], y[i]);
+			body.velocity.set(vx[i], vy[i]);
+			body.acceleration.set(ax[i], ay[i]);
+			body.mass = mass[i];
+			if(body instanceof ControllableObject)
+			{
+				((ControllableObject)body).health = health[i];
+			}
+			Globals.physics.load(body.id);
+		}
+
+		Globals.grid.rebuild(Globals.physics);
+	}
+
+	/**
+	 * Lets go of the world (so the next one doesn't have to share the heap with it)
+	 */
+	public void release()
+	{
+		GameObject.allGameObjects = new ArrayList<GameObject>();
+		Laser.clear();
+		Globals.physics = new PhysicsState();
+		Globals.grid = new Grid(Globals.levelSize, Globals.levelSize, Globals.gridQuality);
+	}
+}
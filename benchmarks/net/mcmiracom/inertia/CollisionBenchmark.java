@@ -0,0 +1,47 @@
+package net.mcmiracom.inertia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Handles every nearby pair once - absorptions between meteoroids (handleBodyCollisions), or hard collisions between
+ * ships (handlePhysicsCollisions)
+ *
+ * @author Aaron Jacobs
+ */
+public class CollisionBenchmark extends WorldBenchmark
+{
+	@Param({"false", "true"})
+	public boolean ships;
+
+	private long pairs;
+	private final Grid.PairHandler handler = new Grid.PairHandler() {
+		public void handlePair(int first, int second)
+		{
+			Globals.grid.handleCollisionPair(Globals.physics.bodies[first], Globals.physics.bodies[second]);
+			++pairs;
+		}
+	};
+
+	@Override
+	protected boolean ships()
+	{
+		return ships;
+	}
+
+	@Setup(Level.Invocation)
+	public void restore()
+	{
+		world.restore();
+	}
+
+	@Benchmark
+	public long handleCollisionPair()
+	{
+		pairs = 0;
+		Globals.grid.forEachPair(handler);
+		return pairs;
+	}
+}
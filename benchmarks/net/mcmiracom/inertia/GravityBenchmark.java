@@ -0,0 +1,35 @@
+package net.mcmiracom.inertia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Local gravity (the world is never changed, since only the accelerations are written)
+ *
+ * @author Aaron Jacobs
+ */
+public class GravityBenchmark extends WorldBenchmark
+{
+	@Benchmark
+	public void calculateAttraction(Blackhole blackhole)
+	{
+		PhysicsState state = Globals.physics;
+		for(int id = 0; id < state.count; ++id)
+		{
+			state.ax[id] = 0.0;
+			state.ay[id] = 0.0;
+			if(state.active[id])
+			{
+				Globals.grid.calculateAttraction(state, id);
+				blackhole.consume(state.ax[id]);
+			}
+		}
+	}
+
+	@Benchmark
+	public double computeGravity()
+	{
+		Globals.physics.computeGravity();
+		return Globals.physics.ax[0];
+	}
+}
@@ -0,0 +1,53 @@
+package net.mcmiracom.inertia;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Grid upkeep under churn: a tenth of the bodies move somewhere else, then the grid is re-sorted (the positions keep
+ * moving around, so the world never needs restoring)
+ *
+ * @author Aaron Jacobs
+ */
+public class GridBenchmark extends WorldBenchmark
+{
+	public static final int CHURN_RATIO = 10; // Bodies per moved body
+
+	private double[] newX, newY;
+	private int next;
+
+	@Override
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		super.setUp();
+
+		Random random = new Random(BenchmarkWorld.SEED);
+		newX = new double[bodies];
+		newY = new double[bodies];
+		for(int i = 0; i < bodies; ++i)
+		{
+			newX[i] = 1 + (random.nextDouble() * (worldSize - 2));
+			newY[i] = 1 + (random.nextDouble() * (worldSize - 2));
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public int placeAndRebuild()
+	{
+		int moved = Math.max(1, world.numBodies / CHURN_RATIO);
+		for(int i = 0; i < moved; ++i)
+		{
+			PhysObject body = world.bodies[next];
+			body.setPosition(newX[next], newY[next]);
+			Globals.grid.place(body);
+			next = (next + 1) % world.numBodies;
+		}
+		Globals.grid.rebuild(Globals.physics);
+		return Globals.grid.cellStart[1];
+	}
+}
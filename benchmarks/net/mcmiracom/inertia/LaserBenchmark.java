@@ -0,0 +1,54 @@
+package net.mcmiracom.inertia;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Lasers looking for something to hit (every laser misses, so the lasers and bodies are never removed)
+ *
+ * @author Aaron Jacobs
+ */
+public class LaserBenchmark extends WorldBenchmark
+{
+	public static final int LASER_RATIO = 16; // Bodies per laser
+
+	private Laser[] lasers;
+
+	@Override
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		super.setUp();
+
+		// The bodies have no size, so nothing is ever hit
+		Enemy shooter = new Enemy(Globals.DEFAULT_MASS, Globals.DEFAULT_HEALTH);
+		shooter.setPosition(worldSize / 2, worldSize / 2);
+		for(int i = 0; i < world.numBodies; ++i)
+		{
+			world.bodies[i].bounds.setFrame(world.bodies[i].position.x, world.bodies[i].position.y, 0.0, 0.0);
+		}
+		shooter.bounds.setFrame(shooter.position.x, shooter.position.y, 0.0, 0.0);
+		Globals.grid.rebuild(Globals.physics);
+
+		Random random = new Random(BenchmarkWorld.SEED);
+		lasers = new Laser[Math.max(1, Math.min(bodies / LASER_RATIO, Laser.MAX_LASERS))];
+		for(int i = 0; i < lasers.length; ++i)
+		{
+			lasers[i] = Laser.create(shooter, random.nextDouble() * worldSize, random.nextDouble() * worldSize, 0.0);
+			lasers[i].setPosition(1 + (random.nextDouble() * (worldSize - 2)), 1 + (random.nextDouble() * (worldSize - 2)));
+		}
+	}
+
+	@Benchmark
+	public int handleLaserCollisions()
+	{
+		for(int i = 0; i < lasers.length; ++i)
+		{
+			Globals.grid.handleLaserCollisions(lasers[i]);
+		}
+		return Laser.allLasers.size();
+	}
+}
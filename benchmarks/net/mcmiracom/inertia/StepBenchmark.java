@@ -0,0 +1,26 @@
+package net.mcmiracom.inertia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * A whole physics step of a world of meteoroids (from the same starting point every time)
+ *
+ * @author Aaron Jacobs
+ */
+public class StepBenchmark extends WorldBenchmark
+{
+	@Setup(Level.Invocation)
+	public void restore()
+	{
+		world.restore();
+	}
+
+	@Benchmark
+	public double step()
+	{
+		Globals.physics.step(Globals.timeStep);
+		return Globals.physics.x[0];
+	}
+}
@@ -0,0 +1,84 @@
+package net.mcmiracom.inertia;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The same chain of Vec2 operations over a fixed set of random vectors, with the allocating operations and with the
+ * "into" ones
+ *
+ * @author Aaron Jacobs
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class Vec2Benchmark
+{
+	public static final int VECTOR_COUNT = 1024;
+
+	private Vec2[] a, b, c;
+	private Vec2 scratch;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		Random random = new Random(BenchmarkWorld.SEED);
+		a = new Vec2[VECTOR_COUNT];
+		b = new Vec2[VECTOR_COUNT];
+		c = new Vec2[VECTOR_COUNT];
+		for(int i = 0; i < VECTOR_COUNT; ++i)
+		{
+			a[i] = new Vec2(random.nextDouble() * 1000, random.nextDouble() * 1000);
+			b[i] = new Vec2(random.nextDouble() * 1000, random.nextDouble() * 1000);
+			c[i] = new Vec2(random.nextDouble() * 1000, random.nextDouble() * 1000);
+		}
+		scratch = new Vec2();
+	}
+
+	@Benchmark
+	public void chainAllocating(Blackhole blackhole)
+	{
+		for(int i = 0; i < VECTOR_COUNT; ++i)
+		{
+			Vec2 difference = a[i].subtract(b[i]);
+			Vec2 direction = difference.normalize();
+			Vec2 scaled = direction.multiply(3.0);
+			Vec2 result = scaled.add(c[i]);
+
+			// Every vector escapes, so escape analysis can't remove the allocations
+			blackhole.consume(difference);
+			blackhole.consume(direction);
+			blackhole.consume(scaled);
+			blackhole.consume(result);
+		}
+	}
+
+	@Benchmark
+	public void chainInto(Blackhole blackhole)
+	{
+		for(int i = 0; i < VECTOR_COUNT; ++i)
+		{
+			Vec2.subtractInto(scratch, a[i], b[i]);
+			Vec2.normalizeInto(scratch, scratch);
+			Vec2.multiplyInto(scratch, scratch, 3.0);
+			Vec2.addInto(scratch, scratch, c[i]);
+			blackhole.consume(scratch.x + scratch.y);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package net.mcmiracom.inertia;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base of the JMH benchmarks that run against a BenchmarkWorld, swept across the body count, world size and grid
+ * quality (narrow the sweep with JMH's -p option, e.g. -p bodies=1000)
+ *
+ * The world is built once per trial. Benchmarks that change it call restore() from a Level.Invocation setup, which
+ * JMH doesn't time (every operation here works on the whole world, so the setup's overhead is small next to it).
+ *
+ * @author Aaron Jacobs
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public abstract class WorldBenchmark
+{
+	@Param({"1000", "10000", "100000"})
+	public int bodies;
+
+	@Param({"5000", "7000", "10000"}) // Globals.SMALL_WORLD, MEDIUM_WORLD and LARGE_WORLD
+	public int worldSize;
+
+	@Param({"600", "1000", "1500"}) // Globals.LOW_QUALITY, MEDIUM_QUALITY and HIGH_QUALITY
+	public int gridQuality;
+
+	protected BenchmarkWorld world;
+
+	/**
+	 * @return If the bodies should be (indestructible) enemy ships instead of meteoroids
+	 */
+	protected boolean ships()
+	{
+		return false;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		System.setProperty("java.awt.headless", "true");
+		world = new BenchmarkWorld(bodies, worldSize, gridQuality, ships());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		world.release();
+		world = null;
+	}
+}
@@ -0,0 +1,151 @@
+package net.mcmiracom.inertia;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Cache of values that are made on a background thread, and dropped least recently used first once the cache holds more
+ * than its byte limit
+ *
+ * Subclasses make the values and say how big they are. Until a value is ready, find() returns null (and the caller
+ * makes do without it). If making a value fails, it's asked for again the next time it's needed.
+ *
+ * @author Aaron Jacobs
+ */
+public abstract class BackgroundCache<K, V>
+{
+	private final String threadName;
+	private final long maxBytes;
+	private long numBytes;
+	private final LinkedHashMap<K, V> entries; // In access order (least recently used first)
+	private final HashSet<K> pending; // Being made on the background thread
+	private ExecutorService worker; // Started when first needed
+
+	/**
+	 * @param threadName The name of the background thread
+	 * @param maxBytes The (approximate) most memory the cached values can use
+	 */
+	public BackgroundCache(String threadName, long maxBytes)
+	{
+		this.threadName = threadName;
+		this.maxBytes = maxBytes;
+		numBytes = 0;
+		entries = new LinkedHashMap<K, V>(64, 0.75f, true);
+		pending = new HashSet<K>();
+	}
+
+	/**
+	 * Makes the value of a key (called on the background thread)
+	 *
+	 * @param key The key
+	 * @return The value
+	 */
+	protected abstract V make(K key);
+
+	/**
+	 * @param value A value
+	 * @return About how much memory the value uses
+	 */
+	protected abstract long bytes(V value);
+
+	/**
+	 * Finds the value of a key (and starts making it if it isn't cached yet)
+	 *
+	 * @param key The key
+	 * @return The value, or null if it isn't ready yet
+	 */
+	protected synchronized V find(K key)
+	{
+		V value = entries.get(key);
+		if(value == null && pending.add(key))
+		{
+			makeLater(key);
+		}
+
+		return value;
+	}
+
+	/**
+	 * @return The number of cached values
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Drops every cached value
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		numBytes = 0;
+	}
+
+	/**
+	 * Makes the value on the background thread, and adds it to the cache once it's done
+	 *
+	 * @param key The key to make the value of
+	 */
+	private void makeLater(final K key)
+	{
+		if(worker == null)
+		{
+			worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable, threadName);
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+		}
+
+		worker.execute(new Runnable() {
+			public void run()
+			{
+				V value = null;
+				try
+				{
+					value = make(key);
+				}
+				finally
+				{
+					put(key, value); // Even if it failed, so it isn't pending forever
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds a finished value, and drops the least recently used ones if the cache is over its limit
+	 *
+	 * @param key The key of the value
+	 * @param value The value (or null if it couldn't be made)
+	 */
+	private synchronized void put(K key, V value)
+	{
+		pending.remove(key);
+		if(value == null)
+		{
+			return;
+		}
+
+		entries.put(key, value);
+		numBytes += bytes(value);
+
+		Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+		while(numBytes > maxBytes && entries.size() > 1 && iterator.hasNext())
+		{
+			// Anything still using an evicted value keeps its reference to it
+			numBytes -= bytes(iterator.next().getValue());
+			iterator.remove();
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package net.mcmiracom.inertia;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+
+/**
+ * Something drawn once into an (accelerated) VolatileImage, and then copied to the screen every frame until it changes
+ *
+ * Subclasses paint the contents, and call invalidate() when they need to be painted again. The image is also repainted
+ * whenever its contents are lost (or it has to be recreated for a different screen).
+ *
+ * @author Aaron Jacobs
+ */
+public abstract class CachedLayer
+{
+	protected final int width, height;
+	private final int transparency;
+	private VolatileImage image; // Created when first drawn
+	private boolean dirty;
+
+	/**
+	 * @param width The width of the layer
+	 * @param height The height of the layer
+	 * @param transparency The transparency of the layer (see java.awt.Transparency)
+	 */
+	public CachedLayer(int width, int height, int transparency)
+	{
+		this.width = Math.max(width, 1);
+		this.height = Math.max(height, 1);
+		this.transparency = transparency;
+		dirty = true;
+	}
+
+	/**
+	 * Paints the contents of the layer
+	 *
+	 * @param layer2D The Graphics2D object of the layer (already cleared)
+	 */
+	protected abstract void paint(Graphics2D layer2D);
+
+	/**
+	 * Marks the layer to be painted again before it's next drawn
+	 */
+	public void invalidate()
+	{
+		dirty = true;
+	}
+
+	/**
+	 * Draws part of the layer (repainting it first, if needed)
+	 *
+	 * @param canvas2D The canvas to draw on
+	 * @param x The x coordinate to draw at (on the canvas)
+	 * @param y The y coordinate to draw at (on the canvas)
+	 * @param sourceX The x coordinate of the part of the layer to draw
+	 * @param sourceY The y coordinate of the part of the layer to draw
+	 * @param drawWidth The width of the part to draw
+	 * @param drawHeight The height of the part to draw
+	 */
+	public void draw(Graphics2D canvas2D, int x, int y, int sourceX, int sourceY, int drawWidth, int drawHeight)
+	{
+		GraphicsConfiguration gc = canvas2D.getDeviceConfiguration();
+		do
+		{
+			validate(gc);
+			canvas2D.drawImage(image, x, y, x + drawWidth, y + drawHeight, sourceX, sourceY, sourceX + drawWidth, sourceY + drawHeight, null);
+		}while(image.contentsLost());
+	}
+
+	/**
+	 * Draws the whole layer (repainting it first, if needed)
+	 *
+	 * @param canvas2D The canvas to draw on
+	 * @param x The x coordinate to draw at
+	 * @param y The y coordinate to draw at
+	 */
+	public void draw(Graphics2D canvas2D, int x, int y)
+	{
+		draw(canvas2D, x, y, 0, 0, width, height);
+	}
+
+	/**
+	 * Makes sure the image exists, works with the screen, and is up to date
+	 *
+	 * @param gc The configuration of the screen being drawn to
+	 */
+	private void validate(GraphicsConfiguration gc)
+	{
+		do
+		{
+			int status = VolatileImage.IMAGE_INCOMPATIBLE;
+			if(image != null)
+			{
+				status = image.validate(gc);
+			}
+
+			if(status == VolatileImage.IMAGE_INCOMPATIBLE)
+			{
+				if(image != null)
+				{
+					image.flush();
+				}
+				image = gc.createCompatibleVolatileImage(width, height, transparency);
+				dirty = true;
+			}
+			else if(status == VolatileImage.IMAGE_RESTORED)
+			{
+				dirty = true; // The contents were lost
+			}
+
+			if(dirty)
+			{
+				Graphics2D layer2D = image.createGraphics();
+				if(transparency != Transparency.OPAQUE)
+				{
+					layer2D.setComposite(AlphaComposite.Clear);
+					layer2D.fillRect(0, 0, width, height);
+					layer2D.setComposite(AlphaComposite.SrcOver);
+				}
+				paint(layer2D);
+				layer2D.dispose();
+				dirty = false;
+			}
+		}while(image.contentsLost());
+	}
+}
@@ -0,0 +1,168 @@
+package net.mcmiracom.inertia;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for what happens in the game (so that a long frame or a GC spike in a recording can be
+ * tied back to the game)
+ *
+ * Every event is marked @Enabled(false), so the JDK's own settings (default and profile) leave them off - only a
+ * recording that turns them on (see jfr/inertia.jfc) gets them. Each one is only filled in and committed if it's
+ * enabled, so a disabled event costs a check of a flag (and the allocation is usually optimized away). Ticks also have
+ * a 1 ms threshold, so a recording that turns them on without a threshold only gets the slow ones (inertia.jfc sets it
+ * to 0 ms, to get every tick).
+ *
+ * @author Aaron Jacobs
+ */
+public class GameEvents
+{
+	private GameEvents()
+	{
+	}
+
+	/**
+	 * A single fixed simulation step (including publishing the render snapshot)
+	 *
+	 * @author Aaron Jacobs
+	 */
+	@Name("net.mcmiracom.inertia.Tick")
+	@Label("Physics Tick")
+	@Category({"Inertia", "Simulation"})
+	@Description("A single fixed time step of the simulation")
+	@StackTrace(false)
+	@Enabled(false)
+	@Threshold("1 ms")
+	public static class Tick extends Event
+	{
+		@Label("Bodies")
+		public int numBodies;
+
+		@Label("Enemies")
+		public int numEnemies;
+
+		@Label("Lasers")
+		public int numLasers;
+
+		@Label("Time Step")
+		@Timespan(Timespan.NANOSECONDS)
+		public long timeStep;
+	}
+
+	/**
+	 * A body absorbing another
+	 *
+	 * @author Aaron Jacobs
+	 */
+	@Name("net.mcmiracom.inertia.Absorption")
+	@Label("Absorption")
+	@Category({"Inertia", "Physics"})
+	@Description("A body absorbing another body that it collided with")
+	@StackTrace(false)
+	@Enabled(false)
+	public static class Absorption extends Event
+	{
+		@Label("Absorber Mass")
+		public double absorberMass;
+
+		@Label("Absorbed Mass")
+		public double absorbedMass;
+
+		@Label("Absorber Is Player")
+		public boolean absorberIsPlayer;
+
+		@Label("X")
+		public double x;
+
+		@Label("Y")
+		public double y;
+	}
+
+	/**
+	 * A hard (damaging) collision between a ship and another object
+	 *
+	 * @author Aaron Jacobs
+	 */
+	@Name("net.mcmiracom.inertia.Collision")
+	@Label("Collision")
+	@Category({"Inertia", "Physics"})
+	@Description("A hard collision between a ship and another ship or a meteoroid")
+	@StackTrace(false)
+	@Enabled(false)
+	public static class Collision extends Event
+	{
+		@Label("Ship")
+		public String ship;
+
+		@Label("Other")
+		public String other;
+
+		@Label("Other Mass")
+		public double otherMass;
+
+		@Label("Ship Destroyed")
+		public boolean shipDestroyed;
+
+		@Label("Other Destroyed")
+		public boolean otherDestroyed;
+	}
+
+	/**
+	 * A laser hitting something
+	 *
+	 * @author Aaron Jacobs
+	 */
+	@Name("net.mcmiracom.inertia.LaserHit")
+	@Label("Laser Hit")
+	@Category({"Inertia", "Combat"})
+	@Description("A laser hitting a ship or a meteoroid")
+	@StackTrace(false)
+	@Enabled(false)
+	public static class LaserHit extends Event
+	{
+		@Label("Target")
+		public String target;
+
+		@Label("Damage")
+		public int damage;
+
+		@Label("Target Destroyed")
+		public boolean destroyed;
+	}
+
+	/**
+	 * A body changing size (and its texture being rescaled)
+	 *
+	 * @author Aaron Jacobs
+	 */
+	@Name("net.mcmiracom.inertia.Scale")
+	@Label("Body Scale")
+	@Category({"Inertia", "Physics"})
+	@Description("A body changing size after its mass changed")
+	@StackTrace(false)
+	@Enabled(false)
+	public static class Scale extends Event
+	{
+		@Label("Old Mass")
+		public double oldMass;
+
+		@Label("New Mass")
+		public double newMass;
+
+		@Label("New Width")
+		public int width;
+
+		@Label("New Height")
+		public int height;
+
+		@Label("Cached Texture Ready")
+		public boolean textureReady;
+	}
+}
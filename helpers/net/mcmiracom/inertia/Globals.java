@@ -5,9 +5,7 @@ import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
 import java.awt.Window;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 /**
@@ -17,9 +15,10 @@ import javax.swing.ImageIcon;
  */
 public class Globals
 {
-	protected static double timeStep = 1.0;
+	protected static double timeStep = 1.0 / Globals.STEPS_PER_SECOND; // Fixed (see GameLoop)
 	protected static int panelWidth = 1280, panelHeight = 720;
 	protected static int difficulty, gridQuality, levelSize;
+	protected static long worldSeed = 0L; // The seed of every new world (0 for a different world every time)
 	public static final int LOW_QUALITY = 600,
 			MEDIUM_QUALITY = 1000,
 			HIGH_QUALITY = 1500,
@@ -28,6 +27,22 @@ public class Globals
 			LARGE_WORLD = 10000;
 	protected static Camera camera = null;
 	protected static Grid grid;
+	protected static PhysicsState physics;
+	protected static QuadTree quadTree;
+	protected static Animations animations = new Animations();
+	protected static Profiler stepProfiler = new Profiler(Profiler.STEP_PHASES, Profiler.DEFAULT_WINDOW);
+	protected static Profiler frameProfiler = new Profiler(Profiler.FRAME_PHASES, Profiler.DEFAULT_WINDOW);
+	protected static AIScheduler aiScheduler = new AIScheduler();
+	protected static double aiBudgetMillis = 1.0; // The time enemies can spend thinking in each step (see AIScheduler - 0 for no limit)
+	protected static double tickStutterMillis = 8.0, paintStutterMillis = 16.0, frameStutterMillis = 25.0; // Stutter thresholds (see FrameStats)
+	protected static boolean barnesHut = false;
+	protected static double openingAngle = 0.5;
+	protected static boolean parallelPhysics = false; // Split gravity and integration between threads (the same results as one thread, except with the full grid neighborhood)
+	protected static boolean fullGridNeighborhood = false; // Search all 9 nearby GridNodes, instead of the closest 4 (more gravity - and on one thread, each pair is summed once, so it isn't bit-identical to the parallel physics)
+	protected static boolean sleepingBodies = true; // Let meteoroids that have come to rest sleep until something disturbs them
+	protected static boolean activeRendering = false; // Draw from the game loop into a BufferStrategy, instead of through Swing
+	protected static int numBuffers = 3; // Buffers to flip between when actively rendering (2 or 3)
+	protected static boolean fullScreen = false; // Full-screen exclusive mode (only when actively rendering)
 
 	protected static boolean gameOver = false;
 
@@ -45,6 +60,8 @@ public class Globals
 			LASER_VELOCITY = 800.0;
 
 	public static final int FRAMES_PER_SECOND = 60,
+			STEPS_PER_SECOND = 60,
+			MAX_STEPS_PER_FRAME = 5,
 			EASY = 120,
 			MEDIUM = 70,
 			HARD = 10,
@@ -64,45 +81,40 @@ public class Globals
 
 	public static BufferedImage background, midground, foreground;
 	public static BufferedImage laser;
+	protected static Textures textures = new ImageTextures(); // Replaced with HeadlessTextures when there's no display
+	protected static TextureCache textureCache = new TextureCache(TextureCache.DEFAULT_MAX_BYTES);
+	protected static int spriteAngles = RotationCache.DEFAULT_ANGLES; // The number of angles rotated sprites are pre-rendered at
+	protected static RotationCache rotationCache = new RotationCache(spriteAngles, RotationCache.DEFAULT_MAX_BYTES);
 
 	/**
 	 * Loads required game images
 	 */
 	public static void loadImages()
 	{
-		try
+		laserExplosion = new BufferedImage[LASER_EXPLOSION_FRAMECOUNT];
+		for(int i = 0; i < LASER_EXPLOSION_FRAMECOUNT; ++i)
 		{
-			laserExplosion = new BufferedImage[LASER_EXPLOSION_FRAMECOUNT];
-			for(int i = 0; i < LASER_EXPLOSION_FRAMECOUNT; ++i)
-			{
-				laserExplosion[i] = createCompatibleImage(ImageIO.read(GameObject.class.getClassLoader().getResource(TEXTURE_FOLDER + LASER_EXPLOSION_FOLDER + "laser_explosion" + i + ".png")));
-			}
-
-			explosion = new BufferedImage[EXPLOSION_FRAMECOUNT];
-			for(int i = 0; i < LASER_EXPLOSION_FRAMECOUNT; ++i)
-			{
-				explosion[i] = createCompatibleImage(ImageIO.read(GameObject.class.getClassLoader().getResource(TEXTURE_FOLDER + EXPLOSION_FOLDER + "explosion" + i + ".png")));
-			}
-
-			background = createCompatibleImage(ImageIO.read(GameObject.class.getClassLoader().getResource(TEXTURE_FOLDER + "space_dark.jpg")));
-			midground = createCompatibleImage(ImageIO.read(GameObject.class.getClassLoader().getResource(TEXTURE_FOLDER + "galaxy.png")));
-			foreground = createCompatibleImage(ImageIO.read(GameObject.class.getClassLoader().getResource(TEXTURE_FOLDER + "clouds.png")));
-
-			laser = createCompatibleImage(ImageIO.read(GamePanel.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "laser.png")));
-
-			background.setAccelerationPriority(1.0f);
-			midground.setAccelerationPriority(1.0f);
-			foreground.setAccelerationPriority(1.0f);
+			laserExplosion[i] = textures.load(LASER_EXPLOSION_FOLDER + "laser_explosion" + i + ".png");
 		}
-		catch(IOException e)
+
+		explosion = new BufferedImage[EXPLOSION_FRAMECOUNT];
+		for(int i = 0; i < EXPLOSION_FRAMECOUNT; ++i)
 		{
-			//TODO
-			e.printStackTrace();
+			explosion[i] = textures.load(EXPLOSION_FOLDER + "explosion" + i + ".png");
 		}
-		GameObject.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "space_dark.jpg");
+
+		background = textures.load("space_dark.jpg");
+		midground = textures.load("galaxy.png");
+		foreground = textures.load("clouds.png");
+
+		laser = textures.load("laser.png");
+
+		background.setAccelerationPriority(1.0f);
+		midground.setAccelerationPriority(1.0f);
+		foreground.setAccelerationPriority(1.0f);
 	}
 
-	private static GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+	private static GraphicsConfiguration gc = null; // Looked up when first needed (there isn't one without a display)
 
 	/**
 	 * Creates an image of the same format as the screen (allowing it to be drawn more efficiently)
@@ -112,7 +124,7 @@ public class Globals
 	 */
 	public static BufferedImage createCompatibleImage(BufferedImage source)
 	{
-		BufferedImage newImage = gc.createCompatibleImage(source.getWidth(), source.getHeight(), source.getTransparency());
+		BufferedImage newImage = createCompatibleImage(source.getWidth(), source.getHeight(), source.getTransparency());
 		Graphics2D g2d = (Graphics2D)newImage.getGraphics();
 		g2d.drawImage(source, 0, 0, null);
 		g2d.dispose();
@@ -120,6 +132,24 @@ public class Globals
 		return newImage;
 	}
 
+	/**
+	 * Creates a blank image of the same format as the screen
+	 * 
+	 * @param width The width of the image
+	 * @param height The height of the image
+	 * @param transparency The transparency of the image (see java.awt.Transparency)
+	 * @return A compatible BufferedImage
+	 */
+	public static BufferedImage createCompatibleImage(int width, int height, int transparency)
+	{
+		if(gc == null)
+		{
+			gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+		}
+
+		return gc.createCompatibleImage(width, height, transparency);
+	}
+
 	/**
 	 * Sets the icon of a Window
 	 * 
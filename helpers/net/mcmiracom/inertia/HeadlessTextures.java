@@ -0,0 +1,89 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Placeholder textures for running without a display
+ * 
+ * Only the size of each image is read (from its header), and every texture is a blank 1 bit image of that size - the
+ * simulation still gets the right bounds, without decoding or scaling any pixels.
+ * 
+ * @author Aaron Jacobs
+ */
+public class HeadlessTextures implements Textures
+{
+	private static final int DEFAULT_SIZE = 32; // Used if an image can't be read
+
+	public BufferedImage load(String name)
+	{
+		int width = DEFAULT_SIZE, height = DEFAULT_SIZE;
+
+		URL url = HeadlessTextures.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + name);
+		if(url != null)
+		{
+			InputStream stream = null;
+			ImageInputStream imageStream = null;
+			try
+			{
+				stream = url.openStream();
+				imageStream = ImageIO.createImageInputStream(stream);
+				Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+				if(readers.hasNext())
+				{
+					ImageReader reader = readers.next();
+					reader.setInput(imageStream);
+					width = reader.getWidth(0);
+					height = reader.getHeight(0);
+					reader.dispose();
+				}
+			}
+			catch(IOException e)
+			{
+				System.err.println("Could not read the size of " + name + ": " + e.getMessage());
+			}
+			finally
+			{
+				try
+				{
+					if(imageStream != null)
+					{
+						imageStream.close();
+					}
+					if(stream != null)
+					{
+						stream.close();
+					}
+				}
+				catch(IOException e)
+				{
+					// Nothing else to do
+				}
+			}
+		}
+
+		return placeholder(width, height);
+	}
+
+	public BufferedImage scale(BufferedImage texture, int width, int height)
+	{
+		return placeholder(width, height);
+	}
+
+	/**
+	 * @param width The width of the placeholder
+	 * @param height The height of the placeholder
+	 * @return A blank image of the given size (as small in memory as possible)
+	 */
+	private BufferedImage placeholder(int width, int height)
+	{
+		return new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_BYTE_BINARY);
+	}
+}
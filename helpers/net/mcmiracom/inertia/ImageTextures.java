@@ -0,0 +1,48 @@
+package net.mcmiracom.inertia;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+import javax.swing.JOptionPane;
+
+/**
+ * Textures loaded from the image files (converted to the screen's format, so they can be drawn efficiently)
+ * 
+ * @author Aaron Jacobs
+ */
+public class ImageTextures implements Textures
+{
+	public BufferedImage load(String name)
+	{
+		try
+		{
+			URL url = ImageTextures.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + name);
+			if(url == null)
+			{
+				throw new IOException("Missing texture: " + name);
+			}
+
+			return Globals.createCompatibleImage(ImageIO.read(url));
+		}
+		catch(IOException e)
+		{
+			JOptionPane.showMessageDialog(null, e.getMessage(), "Error Loading Texture", JOptionPane.ERROR_MESSAGE);
+			return new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB); // Prevent null pointer
+		}
+	}
+
+	public BufferedImage scale(BufferedImage texture, int width, int height)
+	{
+		BufferedImage scaledImage = Globals.createCompatibleImage(width, height, texture.getTransparency());
+		Graphics2D scaledImageGraphics = scaledImage.createGraphics();
+		scaledImageGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		scaledImageGraphics.drawImage(texture, 0, 0, width, height, null);
+		scaledImageGraphics.dispose();
+
+		return scaledImage;
+	}
+}
@@ -0,0 +1,164 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations (in nanoseconds) with a fixed relative precision over a very wide range (in the style of
+ * HdrHistogram)
+ *
+ * Values below 2^SUB_BUCKET_BITS are counted exactly. Above that, each power of two is split into the same number of
+ * linear buckets, so every value is counted to within 1 / 2^(SUB_BUCKET_BITS - 1) (under 2%) of itself - from
+ * nanoseconds up to MAX_VALUE. Recording is a few shifts and an increment, and never allocates. There is a single writer;
+ * other threads can read it, though a read may be missing the values being recorded at that moment.
+ *
+ * @author Aaron Jacobs
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Exact buckets (and the start of the first magnitude)
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2; // Buckets per power of two, above that
+	private static final int MAX_VALUE_BITS = 42; // About 73 minutes
+	public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+	private final long[] counts;
+	private volatile long totalCount;
+	private long min, max, sum;
+
+	public LatencyHistogram()
+	{
+		counts = new long[indexOf(MAX_VALUE) + 1];
+		reset();
+	}
+
+	/**
+	 * Counts a value (writer only)
+	 *
+	 * @param value The value (in nanoseconds) - negative values count as 0, and values over MAX_VALUE as MAX_VALUE
+	 */
+	public void record(long value)
+	{
+		if(value < 0L)
+		{
+			value = 0L;
+		}
+		else if(value > MAX_VALUE)
+		{
+			value = MAX_VALUE;
+		}
+
+		++counts[indexOf(value)];
+		sum += value;
+		if(value < min)
+		{
+			min = value;
+		}
+		if(value > max)
+		{
+			max = value;
+		}
+		totalCount = totalCount + 1; // Only written by the writer
+	}
+
+	/**
+	 * Forgets every value
+	 */
+	public void reset()
+	{
+		Arrays.fill(counts, 0L);
+		totalCount = 0L;
+		min = Long.MAX_VALUE;
+		max = 0L;
+		sum = 0L;
+	}
+
+	/**
+	 * @return The number of values recorded
+	 */
+	public long getTotalCount()
+	{
+		return totalCount;
+	}
+
+	/**
+	 * @return The smallest value recorded (0 if there aren't any)
+	 */
+	public long getMin()
+	{
+		return totalCount == 0L ? 0L : min;
+	}
+
+	/**
+	 * @return The largest value recorded (exact)
+	 */
+	public long getMax()
+	{
+		return max;
+	}
+
+	/**
+	 * @return The mean of the values recorded (exact)
+	 */
+	public double getMean()
+	{
+		long count = totalCount;
+		return count == 0L ? 0.0 : sum / (double)count;
+	}
+
+	/**
+	 * @param percentile The percentile (0.0 - 100.0)
+	 * @return The value that the given percent of the recorded values are at or below (the top of its bucket, but never
+	 *         more than the largest value recorded)
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long count = totalCount;
+		if(count == 0L)
+		{
+			return 0L;
+		}
+
+		long target = Math.max(1L, (long)Math.ceil((Math.min(percentile, 100.0) / 100.0) * count));
+		long seen = 0L;
+		for(int i = 0; i < counts.length; ++i)
+		{
+			seen += counts[i];
+			if(seen >= target)
+			{
+				return Math.min(highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @param value A value (0 - MAX_VALUE)
+	 * @return The bucket that counts the value
+	 */
+	private static int indexOf(long value)
+	{
+		if(value < SUB_BUCKETS)
+		{
+			return (int)value;
+		}
+
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS + 1; // So that value >> shift is in [HALF_SUB_BUCKETS, SUB_BUCKETS)
+		return SUB_BUCKETS + ((shift - 1) * HALF_SUB_BUCKETS) + (int)((value >> shift) - HALF_SUB_BUCKETS);
+	}
+
+	/**
+	 * @param index A bucket
+	 * @return The largest value that the bucket counts
+	 */
+	private static long highestValueOf(int index)
+	{
+		if(index < SUB_BUCKETS)
+		{
+			return index;
+		}
+
+		int shift = ((index - SUB_BUCKETS) / HALF_SUB_BUCKETS) + 1;
+		long subBucket = ((index - SUB_BUCKETS) % HALF_SUB_BUCKETS) + HALF_SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,187 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long each phase of a repeated task (a simulation step, or a frame) takes, into a ring buffer of the most
+ * recent runs
+ *
+ * A single thread runs the task, and calls begin(), then mark() at the end of each phase (charging the time since the
+ * previous mark to that phase), then end(). That's one System.nanoTime() call per phase, so it's cheap enough to leave on.
+ * Any other thread can read the recent runs without locking - a run only becomes visible once it's finished, and the
+ * buffer holds twice as many runs as can be read at once, so the writer never catches up to a reader.
+ *
+ * @author Aaron Jacobs
+ */
+public class Profiler
+{
+	public static final int DEFAULT_WINDOW = 240; // Runs (4 seconds of steps)
+
+	// Simulation step phases
+	public static final int COLLISIONS = 0,
+			GRAVITY = 1,
+			AI = 2,
+			INTEGRATION = 3,
+			GRID = 4,
+			LASERS = 5,
+			ANIMATIONS = 6,
+			CLEANUP = 7,
+			SNAPSHOT = 8;
+	public static final String[] STEP_PHASES = {"Collisions", "Gravity", "AI", "Integration", "Grid", "Lasers", "Animations", "Cleanup", "Snapshot"};
+
+	// Frame phases
+	public static final int BACKGROUND = 0,
+			SPRITES = 1,
+			HUD = 2,
+			OVERLAY = 3;
+	public static final String[] FRAME_PHASES = {"Background", "Sprites", "HUD", "Overlay"};
+
+	protected final String[] phaseNames;
+	protected final int numPhases, window;
+	protected volatile boolean enabled;
+
+	private final int capacity;
+	private final long[] times; // capacity rows of numPhases times (in nanoseconds)
+	private final AtomicLong numRuns; // The number of finished runs (the next row to write is numRuns % capacity)
+	private final long[] current; // The run in progress (writer only)
+	private long lastMark;
+
+	/**
+	 * @param phaseNames The name of each phase
+	 * @param window The most recent runs that can be read at once
+	 */
+	public Profiler(String[] phaseNames, int window)
+	{
+		this.phaseNames = phaseNames;
+		this.numPhases = phaseNames.length;
+		this.window = window;
+		enabled = true;
+
+		capacity = window * 2;
+		times = new long[capacity * numPhases];
+		numRuns = new AtomicLong(0L);
+		current = new long[numPhases];
+	}
+
+	/**
+	 * Starts a run (writer only)
+	 */
+	public void begin()
+	{
+		if(!enabled)
+		{
+			return;
+		}
+
+		Arrays.fill(current, 0L);
+		lastMark = System.nanoTime();
+	}
+
+	/**
+	 * Charges the time since the last mark (or the beginning of the run) to a phase (writer only)
+	 *
+	 * @param phase The phase that just finished
+	 */
+	public void mark(int phase)
+	{
+		if(!enabled)
+		{
+			return;
+		}
+
+		long now = System.nanoTime();
+		current[phase] += now - lastMark;
+		lastMark = now;
+	}
+
+	/**
+	 * Finishes a run, and makes it visible to readers (writer only)
+	 */
+	public void end()
+	{
+		if(!enabled)
+		{
+			return;
+		}
+
+		long run = numRuns.get();
+		System.arraycopy(current, 0, times, (int)(run % capacity) * numPhases, numPhases);
+		numRuns.lazySet(run + 1);
+	}
+
+	/**
+	 * @return The number of runs finished so far
+	 */
+	public long getNumRuns()
+	{
+		return numRuns.get();
+	}
+
+	/**
+	 * Copies the most recent finished runs, oldest first
+	 *
+	 * @param out Where to copy the times to (rows of numPhases, at least window rows)
+	 * @return The number of runs copied (at most window)
+	 */
+	public int copyRecent(long[] out)
+	{
+		long last = numRuns.get();
+		int count = (int)Math.min(last, window);
+		for(int i = 0; i < count; ++i)
+		{
+			long run = (last - count) + i;
+			System.arraycopy(times, (int)(run % capacity) * numPhases, out, i * numPhases, numPhases);
+		}
+		return count;
+	}
+
+	/**
+	 * Finds a percentile of a phase (or of the whole run) over some copied runs
+	 *
+	 * @param runs Runs copied by copyRecent()
+	 * @param count The number of runs copied
+	 * @param phase The phase, or -1 for the total of every phase
+	 * @param percentile The percentile (0.0 - 1.0)
+	 * @param scratch Space to sort in (at least count long)
+	 * @return The time (in nanoseconds)
+	 */
+	public long percentile(long[] runs, int count, int phase, double percentile, long[] scratch)
+	{
+		if(count == 0)
+		{
+			return 0L;
+		}
+
+		for(int i = 0; i < count; ++i)
+		{
+			if(phase >= 0)
+			{
+				scratch[i] = runs[(i * numPhases) + phase];
+			}
+			else
+			{
+				scratch[i] = total(runs, i);
+			}
+		}
+		Arrays.sort(scratch, 0, count);
+
+		int index = (int)Math.ceil(percentile * count) - 1;
+		return scratch[Math.max(0, Math.min(count - 1, index))];
+	}
+
+	/**
+	 * @param runs Runs copied by copyRecent()
+	 * @param run The index of a run
+	 * @return The total time of the run (in nanoseconds)
+	 */
+	public long total(long[] runs, int run)
+	{
+		long sum = 0L;
+		for(int phase = 0; phase < numPhases; ++phase)
+		{
+			sum += runs[(run * numPhases) + phase];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,137 @@
+package net.mcmiracom.inertia;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Shared cache of pre-rotated copies of textures (so rotated sprites can be drawn with a plain blit)
+ *
+ * Each texture is rendered once at a fixed number of evenly spaced angles, into a single atlas image (one square frame
+ * per angle, big enough to hold the texture at any angle). A sprite is then drawn by copying the frame closest to its
+ * angle, at a whole pixel position, instead of transforming the texture every frame. Textures are keyed by identity, so
+ * scaled copies (from the TextureCache) get their own atlases. Atlases are made on a background thread - until one is
+ * ready, draw() returns false and the caller draws the texture the slow way. The least recently used atlases are dropped
+ * once the cache holds more than its byte limit.
+ *
+ * @author Aaron Jacobs
+ */
+public class RotationCache extends BackgroundCache<BufferedImage, RotationCache.Atlas>
+{
+	public static final int DEFAULT_ANGLES = 64;
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+	private final int numAngles;
+
+	/**
+	 * @param numAngles The number of angles each texture is rendered at (more look smoother, but use more memory)
+	 * @param maxBytes The (approximate) most memory the atlases can use
+	 */
+	public RotationCache(int numAngles, long maxBytes)
+	{
+		super("Texture Rotator", maxBytes);
+		this.numAngles = Math.max(1, numAngles);
+	}
+
+	/**
+	 * Draws a texture rotated around its center, using the closest pre-rotated frame (and starts rendering the frames if
+	 * there aren't any yet)
+	 *
+	 * @param canvas2D The canvas to draw on
+	 * @param texture The texture to draw
+	 * @param centerX The x coordinate of the center of the sprite
+	 * @param centerY The y coordinate of the center of the sprite
+	 * @param angle The angle to rotate the texture by (in radians)
+	 * @return If the texture was drawn (false if its frames aren't ready yet)
+	 */
+	public boolean draw(Graphics2D canvas2D, BufferedImage texture, double centerX, double centerY, double angle)
+	{
+		Atlas atlas = find(texture);
+		if(atlas == null)
+		{
+			return false;
+		}
+
+		int index = (int)Math.round(angle * numAngles / (Math.PI * 2)) % numAngles;
+		if(index < 0)
+		{
+			index += numAngles;
+		}
+
+		int size = atlas.frameSize;
+		int sourceX = (index % atlas.columns) * size;
+		int sourceY = (index / atlas.columns) * size;
+		int x = (int)Math.floor(centerX - (size / 2.0) + 0.5);
+		int y = (int)Math.floor(centerY - (size / 2.0) + 0.5);
+
+		canvas2D.drawImage(atlas.image, x, y, x + size, y + size, sourceX, sourceY, sourceX + size, sourceY + size, null);
+		return true;
+	}
+
+	/**
+	 * @return The number of angles each texture is rendered at
+	 */
+	public int getNumAngles()
+	{
+		return numAngles;
+	}
+
+	/**
+	 * Renders a texture at every angle (on the background thread)
+	 *
+	 * @param texture The texture to rotate
+	 * @return The atlas of rotated frames
+	 */
+	@Override
+	protected Atlas make(BufferedImage texture)
+	{
+		int width = texture.getWidth(), height = texture.getHeight();
+		int frameSize = (int)Math.ceil(Math.sqrt((width * width) + (height * height))) + 1; // Room for any angle (plus filtering)
+		int columns = (int)Math.ceil(Math.sqrt(numAngles));
+		int rows = (numAngles + columns - 1) / columns;
+
+		BufferedImage image = Globals.createCompatibleImage(columns * frameSize, rows * frameSize, Transparency.TRANSLUCENT);
+		Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		for(int i = 0; i < numAngles; ++i)
+		{
+			Graphics2D frameGraphics = (Graphics2D)imageGraphics.create((i % columns) * frameSize, (i / columns) * frameSize, frameSize, frameSize);
+			frameGraphics.translate(frameSize / 2.0, frameSize / 2.0); // Translate to the center of the frame
+			frameGraphics.rotate(i * Math.PI * 2 / numAngles); // Rotate the texture
+			frameGraphics.drawImage(texture, (int)Math.round(-width / 2.0), (int)Math.round(-height / 2.0), null);
+			frameGraphics.dispose();
+		}
+		imageGraphics.dispose();
+
+		return new Atlas(image, frameSize, columns);
+	}
+
+	/**
+	 * @param atlas An atlas
+	 * @return About how much memory the atlas uses
+	 */
+	@Override
+	protected long bytes(Atlas atlas)
+	{
+		return (long)atlas.image.getWidth() * atlas.image.getHeight() * 4;
+	}
+
+	/**
+	 * Every rotated frame of a single texture, laid out in rows
+	 *
+	 * @author Aaron Jacobs
+	 */
+	protected static class Atlas
+	{
+		private final BufferedImage image;
+		private final int frameSize, columns;
+
+		public Atlas(BufferedImage image, int frameSize, int columns)
+		{
+			this.image = image;
+			this.frameSize = frameSize;
+			this.columns = columns;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Shared cache of scaled copies of textures (used as bodies grow and shrink)
+ *
+ * Copies are keyed by their original texture and their size rounded to a multiple of QUANTUM pixels, so bodies of
+ * nearly the same size share a single image. Copies are always made from the original (never from an earlier copy), on
+ * a background thread - until a copy is ready, get() returns null and the caller keeps drawing what it had (stretched to
+ * its bounds). The least recently used copies are dropped once the cache holds more than its byte limit.
+ *
+ * @author Aaron Jacobs
+ */
+public class TextureCache extends BackgroundCache<TextureCache.Key, BufferedImage>
+{
+	public static final int QUANTUM = 4; // Pixels
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+	/**
+	 * @param maxBytes The (approximate) most memory the cached images can use
+	 */
+	public TextureCache(long maxBytes)
+	{
+		super("Texture Scaler", maxBytes);
+	}
+
+	/**
+	 * Finds a scaled copy of a texture (and starts making one if there isn't one yet)
+	 *
+	 * @param source The original texture
+	 * @param width The width that the copy will be drawn at
+	 * @param height The height that the copy will be drawn at
+	 * @return The closest cached copy (or the source itself, if it's already close enough), or null if it isn't ready yet
+	 */
+	public synchronized BufferedImage get(BufferedImage source, int width, int height)
+	{
+		int quantizedWidth = quantize(width);
+		int quantizedHeight = quantize(height);
+		if(quantizedWidth == quantize(source.getWidth()) && quantizedHeight == quantize(source.getHeight()))
+		{
+			return source;
+		}
+
+		return find(new Key(source, quantizedWidth, quantizedHeight));
+	}
+
+	/**
+	 * Scales a texture (on the background thread)
+	 *
+	 * @param key The texture and size to make
+	 * @return The scaled copy
+	 */
+	@Override
+	protected BufferedImage make(Key key)
+	{
+		return Globals.textures.scale(key.source, key.width, key.height);
+	}
+
+	/**
+	 * @param image An image
+	 * @return About how much memory the image uses
+	 */
+	@Override
+	protected long bytes(BufferedImage image)
+	{
+		return (long)image.getWidth() * image.getHeight() * 4;
+	}
+
+	/**
+	 * @param size A size in pixels
+	 * @return The size rounded to the nearest multiple of QUANTUM (at least QUANTUM)
+	 */
+	public static int quantize(int size)
+	{
+		return Math.max(QUANTUM, ((size + (QUANTUM / 2)) / QUANTUM) * QUANTUM);
+	}
+
+	/**
+	 * An original texture (compared by identity) and a quantized size
+	 *
+	 * @author Aaron Jacobs
+	 */
+	protected static class Key
+	{
+		private final BufferedImage source;
+		private final int width, height;
+
+		public Key(BufferedImage source, int width, int height)
+		{
+			this.source = source;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if(!(other instanceof Key))
+			{
+				return false;
+			}
+			Key otherKey = (Key)other;
+			return source == otherKey.source && width == otherKey.width && height == otherKey.height;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (System.identityHashCode(source) * 31 + width) * 31 + height;
+		}
+	}
+}
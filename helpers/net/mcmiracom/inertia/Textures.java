@@ -0,0 +1,25 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Source of every texture used by the game (the simulation only cares about their sizes, so headless runs can stub them out)
+ * 
+ * @author Aaron Jacobs
+ */
+public interface Textures
+{
+	/**
+	 * @param name The name of the image (relative to Globals.TEXTURE_FOLDER)
+	 * @return The loaded texture
+	 */
+	public BufferedImage load(String name);
+
+	/**
+	 * @param texture The texture to scale
+	 * @param width The new width
+	 * @param height The new height
+	 * @return A scaled copy of the texture
+	 */
+	public BufferedImage scale(BufferedImage texture, int width, int height);
+}
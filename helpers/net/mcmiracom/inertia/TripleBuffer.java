@@ -0,0 +1,69 @@
+package net.mcmiracom.inertia;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer, used to hand data from a single writer to a single reader
+ *
+ * The writer always owns the back buffer, and the reader always owns the front buffer. Publishing swaps the back buffer
+ * with the middle one, and acquiring swaps the middle buffer with the front one (but only if something new was published),
+ * so neither side ever waits on the other.
+ *
+ * @author Aaron Jacobs
+ */
+public class TripleBuffer<T>
+{
+	private static final int INDEX_MASK = 3, FRESH = 4;
+
+	private final Object[] buffers;
+	private final AtomicInteger middle; // Index of the middle buffer, plus the FRESH bit if it hasn't been acquired yet
+	private int back, front;
+
+	/**
+	 * @param first The initial back buffer
+	 * @param second The initial middle buffer
+	 * @param third The initial front buffer
+	 */
+	public TripleBuffer(T first, T second, T third)
+	{
+		buffers = new Object[] {first, second, third};
+		back = 0;
+		middle = new AtomicInteger(1);
+		front = 2;
+	}
+
+	/**
+	 * @return The buffer to write into (writer only)
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack()
+	{
+		return (T)buffers[back];
+	}
+
+	/**
+	 * Publishes the back buffer, and takes over a new one (writer only)
+	 *
+	 * @return The new back buffer
+	 */
+	public T publish()
+	{
+		back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+		return getBack();
+	}
+
+	/**
+	 * Takes over the most recently published buffer, if there is one (reader only)
+	 *
+	 * @return The buffer to read from (the same one as last time if nothing new was published)
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire()
+	{
+		if((middle.get() & FRESH) != 0)
+		{
+			front = middle.getAndSet(front) & INDEX_MASK;
+		}
+		return (T)buffers[front];
+	}
+}
@@ -39,6 +39,33 @@ public class Vec2
 		this.y = other.y;
 	}
 
+	/**
+	 * Sets both values of the calling vector
+	 * 
+	 * @param x The new x value
+	 * @param y The new y value
+	 * @return The calling vector
+	 */
+	public Vec2 set(double x, double y)
+	{
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	/**
+	 * Copies the other vector into the calling vector
+	 * 
+	 * @param other The vector to copy
+	 * @return The calling vector
+	 */
+	public Vec2 set(Vec2 other)
+	{
+		this.x = other.x;
+		this.y = other.y;
+		return this;
+	}
+
 	/**
 	 * @return The magnitude of the vector
 	 */
@@ -145,6 +172,18 @@ public class Vec2
 		this.y -= other.y;
 	}
 
+	/**
+	 * Adds a scaled copy of the other vector to the calling vector (without creating the scaled copy)
+	 * 
+	 * @param other The vector to be scaled and added
+	 * @param value The value to scale the other vector by
+	 */
+	public void multiplyAddOn(Vec2 other, double value)
+	{
+		this.x += other.x * value;
+		this.y += other.y * value;
+	}
+
 	/**
 	 * @param other The vector to calculate the distance to
 	 * @return The distance between the two vectors
@@ -162,7 +201,35 @@ public class Vec2
 	 */
 	public double angle(Vec2 other)
 	{
-		return Math.acos(this.normalize().dot(other.normalize()));
+		return angleBetween(this, other);
+	}
+
+	/**
+	 * Calculates the angle between two vectors (without creating normalized copies)
+	 * 
+	 * @param a The first vector
+	 * @param b The second vector
+	 * @return The angle between the vectors (PI / 2 if either has no length, as a zero vector is perpendicular to everything)
+	 */
+	public static double angleBetween(Vec2 a, Vec2 b)
+	{
+		double magnitudes = a.magnitude() * b.magnitude();
+		if(magnitudes == 0.0)
+		{
+			return Math.PI / 2;
+		}
+
+		double cos = ((a.x * b.x) + (a.y * b.y)) / magnitudes;
+		if(cos > 1.0) // Rounding can push the cosine out of acos's range
+		{
+			cos = 1.0;
+		}
+		else if(cos < -1.0)
+		{
+			cos = -1.0;
+		}
+
+		return Math.acos(cos);
 	}
 
 	/**
@@ -181,6 +248,81 @@ public class Vec2
 		return new Vec2(y, x);
 	}
 
+	/********** Allocation free versions (the result is written into dst, which may be one of the inputs) **********/
+
+	/**
+	 * @param dst The vector to store the result in
+	 * @param a The first vector
+	 * @param b The second vector
+	 * @return dst (a + b)
+	 */
+	public static Vec2 addInto(Vec2 dst, Vec2 a, Vec2 b)
+	{
+		dst.x = a.x + b.x;
+		dst.y = a.y + b.y;
+		return dst;
+	}
+
+	/**
+	 * @param dst The vector to store the result in
+	 * @param a The vector to subtract from
+	 * @param b The vector to subtract
+	 * @return dst (a - b)
+	 */
+	public static Vec2 subtractInto(Vec2 dst, Vec2 a, Vec2 b)
+	{
+		dst.x = a.x - b.x;
+		dst.y = a.y - b.y;
+		return dst;
+	}
+
+	/**
+	 * @param dst The vector to store the result in
+	 * @param a The vector to multiply
+	 * @param value The value to multiply by
+	 * @return dst (a * value)
+	 */
+	public static Vec2 multiplyInto(Vec2 dst, Vec2 a, double value)
+	{
+		dst.x = a.x * value;
+		dst.y = a.y * value;
+		return dst;
+	}
+
+	/**
+	 * @param dst The vector to store the result in
+	 * @param a The vector to normalize
+	 * @return dst (a normalized, or a itself if it has no length)
+	 */
+	public static Vec2 normalizeInto(Vec2 dst, Vec2 a)
+	{
+		double magnitude = a.magnitude();
+		if(magnitude == 0.0)
+		{
+			magnitude = 1.0; // Prevent division by 0
+		}
+
+		dst.x = a.x / magnitude;
+		dst.y = a.y / magnitude;
+		return dst;
+	}
+
+	/**
+	 * @param dst The vector to store the result in
+	 * @param a The first vector
+	 * @param weightA The weight of the first vector
+	 * @param b The second vector
+	 * @param weightB The weight of the second vector
+	 * @return dst (the weighted average of a and b)
+	 */
+	public static Vec2 weightedAverageInto(Vec2 dst, Vec2 a, double weightA, Vec2 b, double weightB)
+	{
+		double totalWeight = weightA + weightB;
+		dst.x = ((a.x * weightA) + (b.x * weightB)) / totalWeight;
+		dst.y = ((a.y * weightA) + (b.y * weightB)) / totalWeight;
+		return dst;
+	}
+
 	public String toString()
 	{
 		return "(" + x + ", " + y + ")";
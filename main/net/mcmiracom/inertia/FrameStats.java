@@ -0,0 +1,287 @@
+package net.mcmiracom.inertia;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Records how long ticks and paints take, and how far apart frames are shown, and remembers the stutters (anything over
+ * its threshold in Globals) along with what was going on at the time
+ *
+ * Ticks are recorded by the GameLoop thread, and paints and frames by whichever thread draws, each into its own
+ * LatencyHistogram (so recording never allocates or locks). Stutters are rare, and are kept in a fixed ring of the most
+ * recent ones. writeReport() saves the percentiles and the stutters to a text file, so that runs can be compared.
+ *
+ * @author Aaron Jacobs
+ */
+public class FrameStats
+{
+	public static final int TICK = 0, PAINT = 1, FRAME = 2;
+	private static final String[] NAMES = {"Tick", "Paint", "Frame interval"};
+	private static final int MAX_STUTTERS = 256; // The most recent ones are kept
+	private static final double[] PERCENTILES = {50.0, 75.0, 90.0, 95.0, 99.0, 99.9, 99.99};
+
+	private final LatencyHistogram[] histograms;
+	private final List<GarbageCollectorMXBean> collectors;
+	private long startTime;
+	private long lastFrameTime; // When the previous frame started (0 if the next frame shouldn't count an interval)
+
+	// Garbage collection totals at the last frame (drawing thread only)
+	private volatile long frameGcCount, frameGcTime;
+
+	// Stutters (guarded by this)
+	private int numStutters; // Ever recorded (the ring holds the last MAX_STUTTERS)
+	private final int[] stutterType, stutterBodies, stutterEnemies, stutterLasers, stutterExplosions;
+	private final long[] stutterTime, stutterDuration, stutterGcCount, stutterGcTime;
+
+	public FrameStats()
+	{
+		histograms = new LatencyHistogram[] {new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram()};
+		collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+		stutterType = new int[MAX_STUTTERS];
+		stutterBodies = new int[MAX_STUTTERS];
+		stutterEnemies = new int[MAX_STUTTERS];
+		stutterLasers = new int[MAX_STUTTERS];
+		stutterExplosions = new int[MAX_STUTTERS];
+		stutterTime = new long[MAX_STUTTERS];
+		stutterDuration = new long[MAX_STUTTERS];
+		stutterGcCount = new long[MAX_STUTTERS];
+		stutterGcTime = new long[MAX_STUTTERS];
+
+		reset();
+	}
+
+	/**
+	 * Forgets everything recorded (the game loop should be stopped)
+	 */
+	public synchronized void reset()
+	{
+		for(int i = 0; i < histograms.length; ++i)
+		{
+			histograms[i].reset();
+		}
+		numStutters = 0;
+		startTime = System.nanoTime();
+		lastFrameTime = 0L;
+		frameGcCount = gcCount();
+		frameGcTime = gcTime();
+	}
+
+	/**
+	 * Makes the next frame start a new interval (after a pause, so the pause doesn't count as a stutter)
+	 */
+	public void skipInterval()
+	{
+		lastFrameTime = 0L;
+	}
+
+	/**
+	 * Records a tick (GameLoop thread only)
+	 *
+	 * @param duration How long the tick took (in nanoseconds)
+	 * @param numBodies The number of bodies
+	 * @param numEnemies The number of enemies
+	 * @param numLasers The number of lasers
+	 * @param numExplosions The number of running explosions
+	 */
+	public void recordTick(long duration, int numBodies, int numEnemies, int numLasers, int numExplosions)
+	{
+		histograms[TICK].record(duration);
+		if(duration > millisToNanos(Globals.tickStutterMillis))
+		{
+			// Collections since the last frame
+			addStutter(TICK, duration, numBodies, numEnemies, numLasers, numExplosions, gcCount() - frameGcCount, gcTime() - frameGcTime);
+		}
+	}
+
+	/**
+	 * Records a drawn frame (drawing thread only)
+	 *
+	 * @param frameStart When the frame started drawing (System.nanoTime)
+	 * @param duration How long the frame took to draw (in nanoseconds)
+	 * @param snapshot The snapshot that was drawn (for the entity counts)
+	 */
+	public void recordFrame(long frameStart, long duration, RenderSnapshot snapshot)
+	{
+		long gcCount = gcCount(), gcTime = gcTime();
+		long newGcCount = gcCount - frameGcCount, newGcTime = gcTime - frameGcTime;
+		frameGcCount = gcCount;
+		frameGcTime = gcTime;
+
+		histograms[PAINT].record(duration);
+		if(duration > millisToNanos(Globals.paintStutterMillis))
+		{
+			addStutter(PAINT, duration, snapshot.numBodies, snapshot.numEnemies, snapshot.numLasers, snapshot.numAnimations, newGcCount, newGcTime);
+		}
+
+		if(lastFrameTime != 0L)
+		{
+			long interval = frameStart - lastFrameTime;
+			histograms[FRAME].record(interval);
+			if(interval > millisToNanos(Globals.frameStutterMillis))
+			{
+				addStutter(FRAME, interval, snapshot.numBodies, snapshot.numEnemies, snapshot.numLasers, snapshot.numAnimations, newGcCount, newGcTime);
+			}
+		}
+		lastFrameTime = frameStart;
+	}
+
+	/**
+	 * Writes the percentiles and stutters to a new file in the working directory (if anything was recorded)
+	 *
+	 * @param reason Why the report is being written (such as "exit" or "reset")
+	 * @return The file written, or null if there was nothing to write (or it couldn't be written)
+	 */
+	public synchronized File writeReport(String reason)
+	{
+		if(histograms[TICK].getTotalCount() == 0L && histograms[FRAME].getTotalCount() == 0L)
+		{
+			return null;
+		}
+
+		Date now = new Date();
+		File file = new File("inertia-frames-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(now) + ".txt");
+		PrintWriter out = null;
+		try
+		{
+			out = new PrintWriter(file, "UTF-8");
+			writeReport(out, reason, now);
+			return file;
+		}
+		catch(IOException e)
+		{
+			System.err.println("Could not write the frame report: " + e.getMessage());
+			return null;
+		}
+		finally
+		{
+			if(out != null)
+			{
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes the report
+	 */
+	private void writeReport(PrintWriter out, String reason, Date now)
+	{
+		out.println("Inertia frame report (" + reason + ") - " + now);
+		out.println("Java " + System.getProperty("java.version") + " (" + System.getProperty("java.vm.name") + "), " + System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", "
+				+ Runtime.getRuntime().availableProcessors() + " processors");
+		out.println("Settings: " + Globals.panelWidth + "x" + Globals.panelHeight + ", difficulty " + Globals.difficulty + ", world " + Globals.levelSize + ", grid quality " + Globals.gridQuality
+				+ ", whole-world gravity " + Globals.barnesHut + ", multithreaded physics " + Globals.parallelPhysics + ", full grid neighborhood " + Globals.fullGridNeighborhood
+				+ ", sleeping bodies " + Globals.sleepingBodies + ", AI budget " + Globals.aiBudgetMillis + " ms, active rendering " + Globals.activeRendering + ", full screen " + Globals.fullScreen + ", sprite angles " + Globals.spriteAngles);
+		out.println(String.format("Recorded for %.1f s", (System.nanoTime() - startTime) / 1000000000.0));
+		out.println();
+
+		/********** Percentiles **********/
+		StringBuilder header = new StringBuilder(String.format("%-16s %8s %8s", "(ms)", "count", "min"));
+		for(int i = 0; i < PERCENTILES.length; ++i)
+		{
+			header.append(String.format(" %8s", "p" + formatPercentile(PERCENTILES[i])));
+		}
+		header.append(String.format(" %8s %8s", "max", "mean"));
+		out.println(header);
+
+		for(int type = 0; type < histograms.length; ++type)
+		{
+			LatencyHistogram histogram = histograms[type];
+			StringBuilder line = new StringBuilder(String.format("%-16s %8d %8.3f", NAMES[type], histogram.getTotalCount(), histogram.getMin() / 1000000.0));
+			for(int i = 0; i < PERCENTILES.length; ++i)
+			{
+				line.append(String.format(" %8.3f", histogram.getValueAtPercentile(PERCENTILES[i]) / 1000000.0));
+			}
+			line.append(String.format(" %8.3f %8.3f", histogram.getMax() / 1000000.0, histogram.getMean() / 1000000.0));
+			out.println(line);
+		}
+		out.println();
+
+		/********** Stutters **********/
+		out.println("Stutters: " + numStutters + " (tick > " + Globals.tickStutterMillis + " ms, paint > " + Globals.paintStutterMillis + " ms, frame interval > "
+				+ Globals.frameStutterMillis + " ms)" + (numStutters > MAX_STUTTERS ? ", the last " + MAX_STUTTERS + " are listed" : ""));
+		if(numStutters > 0)
+		{
+			out.println(String.format("%9s %-16s %9s %7s %7s %7s %10s %5s %7s", "time (s)", "type", "ms", "bodies", "enemies", "lasers", "explosions", "GCs", "GC ms"));
+		}
+		int first = Math.max(0, numStutters - MAX_STUTTERS);
+		for(int s = first; s < numStutters; ++s)
+		{
+			int i = s % MAX_STUTTERS;
+			out.println(String.format("%9.3f %-16s %9.3f %7d %7d %7d %10d %5d %7d", (stutterTime[i] - startTime) / 1000000000.0, NAMES[stutterType[i]], stutterDuration[i] / 1000000.0,
+					stutterBodies[i], stutterEnemies[i], stutterLasers[i], stutterExplosions[i], stutterGcCount[i], stutterGcTime[i]));
+		}
+	}
+
+	/**
+	 * Remembers a stutter (replacing the oldest, if the ring is full)
+	 */
+	private synchronized void addStutter(int type, long duration, int numBodies, int numEnemies, int numLasers, int numExplosions, long gcCount, long gcTime)
+	{
+		int i = numStutters++ % MAX_STUTTERS;
+		stutterType[i] = type;
+		stutterTime[i] = System.nanoTime();
+		stutterDuration[i] = duration;
+		stutterBodies[i] = numBodies;
+		stutterEnemies[i] = numEnemies;
+		stutterLasers[i] = numLasers;
+		stutterExplosions[i] = numExplosions;
+		stutterGcCount[i] = gcCount;
+		stutterGcTime[i] = gcTime;
+	}
+
+	/**
+	 * @return The number of garbage collections so far
+	 */
+	private long gcCount()
+	{
+		long count = 0L;
+		for(int i = 0; i < collectors.size(); ++i)
+		{
+			count += Math.max(0L, collectors.get(i).getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * @return The total time spent on garbage collection so far (in milliseconds)
+	 */
+	private long gcTime()
+	{
+		long time = 0L;
+		for(int i = 0; i < collectors.size(); ++i)
+		{
+			time += Math.max(0L, collectors.get(i).getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * @param millis A time in milliseconds
+	 * @return The time in nanoseconds
+	 */
+	private static long millisToNanos(double millis)
+	{
+		return (long)(millis * 1000000.0);
+	}
+
+	/**
+	 * @param percentile A percentile
+	 * @return The percentile without a trailing ".0"
+	 */
+	private static String formatPercentile(double percentile)
+	{
+		if(percentile == Math.floor(percentile))
+		{
+			return Integer.toString((int)percentile);
+		}
+		return Double.toString(percentile);
+	}
+}
@@ -0,0 +1,94 @@
+package net.mcmiracom.inertia;
+
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Canvas that the game draws to directly, for active rendering (see Globals.activeRendering)
+ *
+ * Instead of asking Swing to repaint, the GameLoop draws each frame itself (on the loop thread) into the canvas's
+ * BufferStrategy, and flips it onto the screen. Frames are never coalesced or delayed by the event queue, and there is
+ * no extra copy out of a Swing back buffer.
+ *
+ * @author Aaron Jacobs
+ */
+public class GameCanvas extends Canvas
+{
+	private static final long serialVersionUID = 2094816620591634773L;
+
+	private final GamePanel panel;
+	private final int numBuffers;
+	private BufferStrategy strategy; // Created once the canvas is on the screen
+
+	/**
+	 * @param panel The panel that draws the frames
+	 * @param numBuffers The number of buffers to flip between (2 or 3)
+	 */
+	public GameCanvas(GamePanel panel, int numBuffers)
+	{
+		super();
+		this.panel = panel;
+		this.numBuffers = numBuffers;
+
+		setFocusable(true);
+	}
+
+	/**
+	 * Draws a frame and shows it (if the canvas is on the screen)
+	 */
+	public synchronized void render()
+	{
+		if(strategy == null)
+		{
+			if(!isDisplayable())
+			{
+				return;
+			}
+			createBufferStrategy(numBuffers);
+			strategy = getBufferStrategy();
+		}
+
+		// The buffers can be lost (or restored) at any time, in which case the frame has to be drawn again
+		do
+		{
+			do
+			{
+				Graphics2D canvas2D = (Graphics2D)strategy.getDrawGraphics();
+				try
+				{
+					panel.render(canvas2D);
+				}
+				finally
+				{
+					canvas2D.dispose();
+				}
+			}while(strategy.contentsRestored());
+
+			strategy.show();
+		}while(strategy.contentsLost());
+
+		Toolkit.getDefaultToolkit().sync(); // Don't let the window system queue up frames
+	}
+
+	/**
+	 * Redraws the canvas when the system asks, but only while the GameLoop isn't drawing it (such as when paused)
+	 */
+	public void paint(Graphics canvas)
+	{
+		if(!panel.isRunning())
+		{
+			render();
+		}
+	}
+
+	/**
+	 * Skips clearing the canvas (every frame covers all of it)
+	 */
+	public void update(Graphics canvas)
+	{
+		paint(canvas);
+	}
+}
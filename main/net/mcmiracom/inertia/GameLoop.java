@@ -0,0 +1,161 @@
+package net.mcmiracom.inertia;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed time step game loop (runs on its own thread)
+ *
+ * The simulation always advances in steps of Globals.timeStep, with real time collected in an accumulator. Rendering is
+ * requested separately (drawn right here, when actively rendering), and interpolates between the last two steps.
+ *
+ * @author Aaron Jacobs
+ */
+public class GameLoop implements Runnable
+{
+	private final GamePanel panel;
+	private final long stepNanos, frameNanos;
+
+	private Thread thread;
+	private volatile boolean running;
+	private volatile long simulatedTime; // The (System.nanoTime) time that the current state represents
+
+	/**
+	 * @param panel The panel to update and repaint
+	 */
+	public GameLoop(GamePanel panel)
+	{
+		this.panel = panel;
+		stepNanos = (long)(Globals.timeStep * 1000000000L);
+		frameNanos = 1000000000L / Globals.FRAMES_PER_SECOND;
+		running = false;
+	}
+
+	/**
+	 * Starts the loop on a new thread
+	 */
+	public synchronized void start()
+	{
+		if(running)
+		{
+			return;
+		}
+
+		running = true;
+		thread = new Thread(this, "Game Loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the loop (waiting for the current step to finish, unless called from the loop itself)
+	 */
+	public synchronized void stop()
+	{
+		if(!running)
+		{
+			return;
+		}
+
+		running = false;
+		LockSupport.unpark(thread);
+
+		if(Thread.currentThread() != thread)
+		{
+			try
+			{
+				thread.join();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return If the loop is running
+	 */
+	public boolean isRunning()
+	{
+		return running;
+	}
+
+	/**
+	 * @return The (System.nanoTime) time that the current state represents (valid during an update)
+	 */
+	public long getSimulatedTime()
+	{
+		return simulatedTime;
+	}
+
+	/**
+	 * @param stateTime The (System.nanoTime) time that a state represents
+	 * @return How far (0.0 - 1.0) the current time is between the step before that state and the state itself
+	 */
+	public double getInterpolationAlpha(long stateTime)
+	{
+		double alpha = (System.nanoTime() - stateTime) / (double)stepNanos;
+		if(alpha < 0.0)
+		{
+			alpha = 0.0;
+		}
+		else if(alpha > 1.0)
+		{
+			alpha = 1.0;
+		}
+		return alpha;
+	}
+
+	public void run()
+	{
+		long previousTime = System.nanoTime();
+		long accumulator = 0L;
+		long lastFrameTime = 0L;
+		simulatedTime = previousTime;
+
+		while(running)
+		{
+			long currentTime = System.nanoTime();
+			accumulator += currentTime - previousTime;
+			previousTime = currentTime;
+
+			// Run as many fixed steps as are due (up to the catch-up cap)
+			int steps = 0;
+			while(running && accumulator >= stepNanos && steps < Globals.MAX_STEPS_PER_FRAME)
+			{
+				simulatedTime += stepNanos;
+				panel.update();
+				accumulator -= stepNanos;
+				++steps;
+			}
+
+			// If we're still behind, drop the time we can't catch up on (rather than falling further behind every frame)
+			if(accumulator >= stepNanos)
+			{
+				accumulator %= stepNanos;
+				simulatedTime = currentTime - accumulator;
+			}
+
+			if(!running)
+			{
+				break;
+			}
+
+			// Request a frame
+			if(currentTime - lastFrameTime >= frameNanos)
+			{
+				panel.requestFrame();
+				lastFrameTime = currentTime;
+			}
+
+			// Sleep until the next step or frame is due
+			long untilStep = stepNanos - accumulator;
+			long untilFrame = frameNanos - (System.nanoTime() - lastFrameTime);
+			long sleepNanos = Math.min(untilStep, untilFrame);
+			if(sleepNanos > 0L)
+			{
+				LockSupport.parkNanos(sleepNanos);
+			}
+		}
+	}
+}
@@ -1,21 +1,17 @@
 package net.mcmiracom.inertia;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.EventQueue;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Transparency;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.imageio.ImageIO;
-import javax.swing.JOptionPane;
+
 import javax.swing.JPanel;
 import javax.swing.event.MouseInputAdapter;
 
@@ -27,14 +23,19 @@ import javax.swing.event.MouseInputAdapter;
 public class GamePanel extends JPanel
 {	
 	private static final long serialVersionUID = -527596709059080356L;
-	private SimpleTimer physTimer;
-	private Player ship;
-	private World world;
-	private Timer timer;
+	private final Object simLock = new Object();
+	private GameLoop loop;
+	private TripleBuffer<RenderSnapshot> snapshots;
+	private Camera renderCamera; // Only used by the paint code (Globals.camera belongs to the simulation)
+	private Simulation simulation;
+	private int[] visibleNodes; // GridNodes under the camera (only used while publishing a snapshot)
+	private GameCanvas canvas; // Only used for active rendering (null when Swing paints the panel)
+	private Hud hud; // Only used by the paint code
+
+	private ProfilerOverlay profilerOverlay; // Only used by the paint code (created when first shown)
+	private final FrameStats frameStats;
 
-	private BufferedImage shipTexture, meteoroidTexture;
-	private volatile boolean debug, showClosest, resetCalled, paused;
-	private int numEnemies;
+	private volatile boolean debug, showProfiler, showClosest, resetCalled, paused;
 
 	public GamePanel()
 	{
@@ -42,26 +43,49 @@ public class GamePanel extends JPanel
 
 		paused = false;
 		debug = false;
+		showProfiler = false;
 		resetCalled = false;
-		numEnemies = 0;
 
 		// JPanel settings
 		setFocusable(true);
 		setDoubleBuffered(true);
 
+		// Active rendering draws to a canvas that covers the panel (so input goes to the canvas instead)
+		Component inputSource = this;
+		if(Globals.activeRendering)
+		{
+			setLayout(new BorderLayout());
+			setIgnoreRepaint(true);
+			canvas = new GameCanvas(this, Globals.numBuffers);
+			add(canvas, BorderLayout.CENTER);
+			inputSource = canvas;
+		}
+
 		// Listeners
-		addKeyListener(new KeyboardHandler());
+		inputSource.addKeyListener(new KeyboardHandler());
 		MouseInput m = new MouseInput();
-		addMouseListener(m);
-		addMouseMotionListener(m);
+		inputSource.addMouseListener(m);
+		inputSource.addMouseMotionListener(m);
 
-		// Physics timer
-		physTimer = new SimpleTimer();
+		// Fixed time step loop
+		loop = new GameLoop(this);
+		snapshots = new TripleBuffer<RenderSnapshot>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+		renderCamera = new Camera(0.0, 0.0, Globals.panelWidth, Globals.panelHeight);
 
-		Globals.grid = new Grid(Globals.levelSize, Globals.levelSize, Globals.gridQuality);
+		simulation = new Simulation();
+		visibleNodes = new int[0];
+		hud = new Hud();
 
-		// Load files
-		loadFiles();
+		// Save the frame report when the game is closed
+		frameStats = new FrameStats();
+		Runtime.getRuntime().addShutdownHook(new Thread("Frame Report") {
+			public void run()
+			{
+				frameStats.writeReport("exit");
+			}
+		});
+
+		updateRotationCache();
 
 		MusicPlayer.play(MusicPlayer.ANTON); //TODO
 	}
@@ -72,21 +96,16 @@ public class GamePanel extends JPanel
 	public void start()
 	{
 		resetCalled = false;
-		Globals.gameOver = false;
-
-		generateMeteoroids(Globals.difficulty);
-		generateEnemies();
+		frameStats.reset();
 
-		physTimer.start();
-
-		timer = new Timer();
-		timer.schedule(new TimerTask()
+		// Synchronized (to prevent concurrency issues)
+		synchronized(simLock)
 		{
-			public void run()
-			{
-				update();
-			}
-		}, 0, 16); // 60 fps
+			simulation.reset();
+			publishSnapshot(); // So that there's something to draw before the first step
+		}
+
+		loop.start();
 	}
 
 	/**
@@ -95,8 +114,8 @@ public class GamePanel extends JPanel
 	public void pause()
 	{
 		paused = true;
-		physTimer.stop();
-		timer.cancel();
+		loop.stop();
+		frameStats.skipInterval();
 	}
 
 	/**
@@ -105,15 +124,46 @@ public class GamePanel extends JPanel
 	public void unPause()
 	{
 		paused = false;
-		physTimer.start();
-		timer = new Timer();
-		timer.schedule(new TimerTask()
+		frameStats.skipInterval();
+		loop.start();
+	}
+
+	/**
+	 * @return If the game loop is running (drawing frames, when actively rendering)
+	 */
+	public boolean isRunning()
+	{
+		return loop.isRunning();
+	}
+
+	/**
+	 * Gives the keyboard focus to whatever takes the game's input
+	 */
+	public void requestGameFocus()
+	{
+		if(canvas != null)
 		{
-			public void run()
-			{
-				update();
-			}
-		}, 0, 16); // 60 fps
+			canvas.requestFocusInWindow();
+		}
+		else
+		{
+			requestFocusInWindow();
+		}
+	}
+
+	/**
+	 * Draws a new frame (run by the GameLoop) - either right away, when actively rendering, or by asking Swing to repaint
+	 */
+	public void requestFrame()
+	{
+		if(canvas != null)
+		{
+			canvas.render();
+		}
+		else
+		{
+			repaint();
+		}
 	}
 
 	/**
@@ -125,38 +175,33 @@ public class GamePanel extends JPanel
 	}
 
 	/**
-	 * Game loop (run once per frame)
+	 * Advances the game by one fixed time step (run by the GameLoop)
 	 */
 	public void update()
 	{
 		// Synchronized (to prevent concurrency issues)
-		synchronized(physTimer)
+		synchronized(simLock)
 		{
-			/********** Calculate Time Step **********/
-			Globals.timeStep = (physTimer.getTicks() / 1000.0);
-
-			/********** Reset timer **********/
-			physTimer.start();
-
-			/********** Physics calculations **********/
-			for(int i = 0; i < PhysObject.allPhysObjects.size(); ++i)
+			long tickStart = System.nanoTime();
+			GameEvents.Tick event = new GameEvents.Tick();
+			event.begin();
+			Globals.stepProfiler.begin();
+			simulation.step();
+			publishSnapshot();
+			Globals.stepProfiler.mark(Profiler.SNAPSHOT);
+			Globals.stepProfiler.end();
+			event.end();
+			if(event.shouldCommit())
 			{
-				if(PhysObject.allPhysObjects.get(i).alive)
-				{
-					PhysObject.allPhysObjects.get(i).move();
-				}
-			}
-
-			/********** Lasers **********/
-			for(int i = 0; i < Laser.allLasers.size(); ++i)
-			{
-				Laser.allLasers.get(i).move();
+				event.numBodies = Globals.physics.size();
+				event.numEnemies = simulation.numEnemies;
+				event.numLasers = Laser.allLasers.size();
+				event.timeStep = (long)(Globals.timeStep * 1000000000L);
+				event.commit();
 			}
+			frameStats.recordTick(System.nanoTime() - tickStart, Globals.physics.size(), simulation.numEnemies, Laser.allLasers.size(), Globals.animations.size());
 		}
 
-		/********** Rendering **********/
-		repaint();
-
 		if(Globals.gameOver)
 		{
 			if(!resetCalled)
@@ -166,80 +211,156 @@ public class GamePanel extends JPanel
 		}
 	}
 
-	public void paintComponent(Graphics canvas)
+	/**
+	 * Captures everything that needs to be drawn for the current step, and hands it off to the paint code (must hold simLock)
+	 */
+	private void publishSnapshot()
 	{
-		// Synchronized (to prevent concurrency issues)
-		synchronized(physTimer)
+		Player ship = simulation.ship;
+		RenderSnapshot snapshot = snapshots.getBack();
+		snapshot.clear();
+		snapshot.time = loop.getSimulatedTime();
+
+		// Culling (and the player's aim) use the camera at the current step
+		Globals.camera.centerOn(ship.position.x, ship.position.y, simulation.world.bounds);
+		snapshot.previousTargetX = ship.getPreviousX() + (ship.bounds.getWidth() / 2);
+		snapshot.previousTargetY = ship.getPreviousY() + (ship.bounds.getHeight() / 2);
+		snapshot.targetX = ship.position.x;
+		snapshot.targetY = ship.position.y;
+
+		/********** Draw Visible Physics Objects **********/
+		// Only the GridNodes under the camera (with room for the largest body, and for anything moving onto the screen)
+		PhysicsState state = Globals.physics;
+		Grid grid = Globals.grid;
+		if(visibleNodes.length < grid.numGridNodes)
 		{
-			super.paintComponent(canvas);
-			Graphics2D canvas2D = (Graphics2D)canvas;
-
-			Globals.camera.centerOn(ship.bounds.getBounds2D(), world.bounds);
-
-			/********** Draw Background **********/
-			world.draw(canvas2D);
-
-			int numCurrentEnemies = 0;
-			/********** Draw All Physics Objects **********/
-			for(int i = 0; i < PhysObject.allPhysObjects.size(); ++i)
+			visibleNodes = new int[grid.numGridNodes];
+		}
+		double margin = state.maxRadius + (Globals.TERMINAL_VEL * Globals.timeStep * 2);
+		int numVisibleNodes = grid.findGridNodesInRect(Globals.camera.bounds.getX() - margin, Globals.camera.bounds.getY() - margin,
+				Globals.camera.bounds.getWidth() + (margin * 2), Globals.camera.bounds.getHeight() + (margin * 2), visibleNodes);
+		for(int n = 0; n < numVisibleNodes; ++n)
+		{
+			int node = visibleNodes[n];
+			for(int i = grid.cellStart[node]; i < grid.cellStart[node + 1]; ++i)
 			{
-				if(PhysObject.allPhysObjects.get(i).alive)
+				PhysObject body = state.bodies[grid.cellItems[i]];
+				if(body.alive)
 				{
-					PhysObject.allPhysObjects.get(i).draw(canvas2D);
+					body.draw(snapshot);
 					if(debug)
 					{
-						PhysObject.allPhysObjects.get(i).drawBounds(canvas2D);
-						PhysObject.allPhysObjects.get(i).drawVelocity(canvas2D);
-					}
-					if(PhysObject.allPhysObjects.get(i) instanceof Enemy)
-					{
-						++numCurrentEnemies;
+						body.drawBounds(snapshot);
+						body.drawVelocity(snapshot);
 					}
 				}
 			}
-			numEnemies = numCurrentEnemies;
-			if(numEnemies == 0)
-			{
-				Globals.gameOver = true;
-			}
+		}
 
-			if(numEnemies <= 10)
-			{
-				showClosest = true;
-			}
-			else
-			{
-				showClosest = false;
-			}
+		if(simulation.numEnemies <= 10)
+		{
+			showClosest = true;
+		}
+		else
+		{
+			showClosest = false;
+		}
 
-			/********** Draw All Game Objects **********/
-			for(int i = 0; i < GameObject.allGameObjects.size(); ++i)
-			{
-				GameObject.allGameObjects.get(i).draw(canvas2D);
-			}
+		/********** Draw All Game Objects **********/
+		for(int i = 0; i < GameObject.allGameObjects.size(); ++i)
+		{
+			GameObject.allGameObjects.get(i).draw(snapshot);
+		}
 
-			/********** Draw All Lasers **********/
-			for(int i = 0; i < Laser.allLasers.size(); ++i)
-			{
-				Laser.allLasers.get(i).draw(canvas2D);
-			}
+		/********** Draw All Lasers **********/
+		for(int i = 0; i < Laser.allLasers.size(); ++i)
+		{
+			Laser.allLasers.get(i).draw(snapshot);
+		}
 
-			if(debug)
-			{
-				Globals.grid.drawGrid(canvas2D);
-				Globals.grid.drawVisualAttraction(ship, canvas2D);
-			}
+		if(debug)
+		{
+			Globals.grid.drawGrid(snapshot);
+			Globals.grid.drawVisualAttraction(ship, snapshot);
+		}
+
+		if(showClosest)
+		{
+			Globals.grid.drawClosestEnemy(ship, snapshot);
+		}
+
+		/********** HUD **********/
+		snapshot.health = ship.health;
+		snapshot.maxHealth = Player.maxHealth;
+		snapshot.numEnemies = simulation.numEnemies;
+		snapshot.numBodies = state.size();
+		snapshot.numLasers = Laser.allLasers.size();
+		snapshot.numAnimations = Globals.animations.size();
+		snapshot.numThought = Globals.aiScheduler.numThought;
+		snapshot.numDeferred = Globals.aiScheduler.numDeferred;
+		System.arraycopy(Globals.aiScheduler.numAtLevel, 0, snapshot.numAtLevel, 0, AIScheduler.NUM_LEVELS);
+		snapshot.thinkNanos = Globals.aiScheduler.thinkNanos;
+
+		snapshot.published = true;
+		snapshots.publish();
+	}
+
+	public void paintComponent(Graphics canvas)
+	{
+		super.paintComponent(canvas);
+		if(this.canvas == null)
+		{
+			render((Graphics2D)canvas);
+		}
+	}
+
+	/**
+	 * Draws the latest snapshot (from the event queue when Swing paints the panel, or from the GameLoop when actively rendering)
+	 *
+	 * @param canvas2D The canvas to draw on
+	 */
+	protected void render(Graphics2D canvas2D)
+	{
+		// Only the latest published snapshot is read (never the simulation itself, so no lock is needed)
+		RenderSnapshot snapshot = snapshots.acquire();
+		if(!snapshot.published)
+		{
+			return;
+		}
+
+		// Draw in between the last two physics steps
+		double alpha = loop.getInterpolationAlpha(snapshot.time);
+		renderCamera.centerOn(snapshot.getTargetX(alpha), snapshot.getTargetY(alpha), simulation.world.bounds);
+
+		long frameStart = System.nanoTime();
+		Profiler profiler = Globals.frameProfiler;
+		profiler.begin();
+
+		/********** Draw Background **********/
+		simulation.world.draw(canvas2D, renderCamera);
+		profiler.mark(Profiler.BACKGROUND);
 
-			if(showClosest)
+		/********** Draw Sprites **********/
+		snapshot.draw(canvas2D, renderCamera, alpha);
+		profiler.mark(Profiler.SPRITES);
+
+		/********** Draw HUD **********/
+		hud.update(snapshot.health, snapshot.maxHealth, snapshot.numEnemies);
+		hud.draw(canvas2D, 0, 0);
+		profiler.mark(Profiler.HUD);
+
+		if(showProfiler)
+		{
+			if(profilerOverlay == null)
 			{
-				Globals.grid.drawClosestEnemy(ship, canvas2D);
+				profilerOverlay = new ProfilerOverlay();
 			}
-
-			canvas2D.setColor(Color.red);
-			canvas2D.setFont(new Font("Arial", Font.PLAIN, 24));
-			canvas2D.drawString("Health: " + ship.health + " / " + Player.maxHealth, 20, 30);
-			canvas2D.drawString("Enemies Remaining: " + numEnemies, 20, 60);
+			profilerOverlay.draw(canvas2D, snapshot);
 		}
+		profiler.mark(Profiler.OVERLAY);
+		profiler.end();
+
+		frameStats.recordFrame(frameStart, System.nanoTime() - frameStart, snapshot);
 	}
 
 	/**
@@ -248,15 +369,18 @@ public class GamePanel extends JPanel
 	protected void reset()
 	{
 		resetCalled = true;
+		loop.stop(); // Stop the game loop (outside of the lock, so that the current step can finish)
+		frameStats.writeReport(Globals.gameOver ? "game over" : "reset");
+		frameStats.reset();
+
 		// Synchronized (to prevent concurrency issues)
-		synchronized(physTimer)
+		synchronized(simLock)
 		{
-			timer.cancel(); // Stop the game loop
 
 			ResetWindow window = null;
 			if(Globals.gameOver)
 			{
-				if(numEnemies > 0)
+				if(simulation.numEnemies > 0)
 				{
 					window = new ResetWindow(this, ResetWindow.LOSE);
 				}
@@ -286,141 +410,62 @@ public class GamePanel extends JPanel
 	 */
 	public void resetStart()
 	{
-		GameObject.allGameObjects = new ArrayList<GameObject>();
-		PhysObject.allPhysObjects = new ArrayList<PhysObject>();
-
-		world = new World();
-		Globals.camera = new Camera(0.0, 0.0, Globals.panelWidth, Globals.panelHeight);
-		Globals.grid = new Grid(Globals.levelSize, Globals.levelSize, Globals.gridQuality);
-
-		ship = new Player(Globals.DEFAULT_MASS, Player.maxHealth);
-		ship.setTexture(shipTexture, true);
-		ship.setPosition((Globals.levelSize / 2) - (ship.bounds.getWidth() / 2), (Globals.levelSize / 2) - (ship.bounds.getHeight() / 2));
-
-		start();
+		updateRotationCache(); // The quality may have changed
+		start(); // The Simulation builds a new world
 	}
 
 	/**
-	 * Generates a meteoroid field
-	 * 
-	 * @param frequency The frequency of the meteoroids in the field
+	 * Rebuilds the rotation cache if the number of sprite angles has changed
 	 */
-	private void generateMeteoroids(int frequency)
+	private void updateRotationCache()
 	{
-		int totalArea = Globals.levelSize;
-		int numMeteoroids = totalArea / frequency;
-		double xPos, yPos;
-
-		for(int i = 0; i < numMeteoroids; ++i)
+		if(Globals.rotationCache.getNumAngles() != Globals.spriteAngles)
 		{
-			PhysObject meteoroid = new PhysObject(Globals.DEFAULT_MASS);
-			do
-			{
-				xPos = Math.random() * Globals.levelSize;
-				yPos = Math.random() * Globals.levelSize;
-			}while(Math.abs(xPos - ship.position.x) < 200 || Math.abs(yPos - ship.position.y) < 200);
-			meteoroid.setPosition(xPos, yPos);
-
-			int sign;
-			if(Math.random() > 0.5)
-			{
-				sign = 1;
-			}
-			else
-			{
-				sign = -1;
-			}
-			meteoroid.velocity.x = Math.random() * 300 * sign;
-			if(Math.random() > 0.5)
-			{
-				sign = 1;
-			}
-			else
-			{
-				sign = -1;
-			}
-			meteoroid.velocity.y = Math.random() * 300 * sign;
-			meteoroid.setTexture(meteoroidTexture, true);
+			Globals.rotationCache = new RotationCache(Globals.spriteAngles, RotationCache.DEFAULT_MAX_BYTES);
 		}
 	}
 
 	/**
-	 * Generates the enemy ships
+	 * The health and enemy count, drawn into a cached layer (only redrawn when they change)
+	 * 
+	 * @author Aaron Jacobs
 	 */
-	private void generateEnemies()
+	private static class Hud extends CachedLayer
 	{
-		int numEnemies = 15;
-		switch(Globals.difficulty)
-		{
-		case Globals.EASY:
-			numEnemies = 15;
-			break;
-		case Globals.MEDIUM:
-			numEnemies = 30;
-			break;
-		case Globals.HARD:
-			numEnemies = 60;
-			break;
-		}
+		private static final Font FONT = new Font("Arial", Font.PLAIN, 24);
 
-		double xPos, yPos;
+		private int health, maxHealth, numEnemies;
 
-		for(int i = 0; i < numEnemies; ++i)
+		public Hud()
 		{
-			Enemy enemy = new Enemy(Globals.DEFAULT_MASS, Globals.DEFAULT_HEALTH / 2);
-			enemy.setTexture(shipTexture, true);
-			do
-			{
-				xPos = Math.random() * Globals.levelSize;
-				yPos = Math.random() * Globals.levelSize;
-			}while(Math.abs(xPos - ship.position.x) < 200 || Math.abs(yPos - ship.position.y) < 200);
-
-			enemy.setPosition(xPos, yPos);
+			super(480, 72, Transparency.TRANSLUCENT);
+			health = -1; // Not drawn yet
 		}
-	}
-
-	/**
-	 * Loads the required images
-	 */
-	private void loadFiles()
-	{
-		Globals.loadImages();
 
-		try
-		{
-			shipTexture = Globals.createCompatibleImage(ImageIO.read(GamePanel.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "ship.png")));
-			meteoroidTexture = Globals.createCompatibleImage(ImageIO.read(GamePanel.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "meteoroid.png")));
-		}
-		catch (IOException e)
+		/**
+		 * Sets the values to show (the layer is only redrawn if they changed)
+		 * 
+		 * @param health The player's health
+		 * @param maxHealth The player's maximum health
+		 * @param numEnemies The number of enemies remaining
+		 */
+		public void update(int health, int maxHealth, int numEnemies)
 		{
-			shipTexture = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB); // Prevent null pointer
-			meteoroidTexture = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB); // Prevent null pointer
-			JOptionPane.showMessageDialog(null, e.getMessage(), "Error Loading Player Texture", JOptionPane.ERROR_MESSAGE);
+			if(health != this.health || maxHealth != this.maxHealth || numEnemies != this.numEnemies)
+			{
+				this.health = health;
+				this.maxHealth = maxHealth;
+				this.numEnemies = numEnemies;
+				invalidate();
+			}
 		}
 
-		Globals.camera = new Camera(0.0, 0.0, Globals.panelWidth, Globals.panelHeight);
-		world = new World();
-		ship = new Player(Globals.DEFAULT_MASS, Player.maxHealth);
-		ship.setTexture(shipTexture, true);
-		ship.setPosition((Globals.levelSize / 2) - (ship.bounds.getWidth() / 2), (Globals.levelSize / 2) - (ship.bounds.getHeight() / 2));
-
-		double x = Math.random() * Globals.levelSize;
-		double y = Math.random() * Globals.levelSize;
-		if(x < 200)
-		{
-			x += 200;
-		}
-		if(x > Globals.levelSize - 200)
-		{
-			x -= 200;
-		}
-		if(y < 200)
+		protected void paint(Graphics2D layer2D)
 		{
-			y += 200;
-		}
-		if(y > Globals.levelSize - 200)
-		{
-			y -= 200;
+			layer2D.setColor(Color.red);
+			layer2D.setFont(FONT);
+			layer2D.drawString("Health: " + health + " / " + maxHealth, 20, 30);
+			layer2D.drawString("Enemies Remaining: " + numEnemies, 20, 60);
 		}
 	}
 
@@ -434,30 +479,34 @@ public class GamePanel extends JPanel
 		public void keyPressed(KeyEvent e)
 		{
 			// Synchronized (to prevent concurrency issues)
-			synchronized(physTimer)
+			synchronized(simLock)
 			{
 				int keyCode = e.getKeyCode();
-				if(ship != null)
+				if(simulation.ship != null)
 				{
-					ship.handleKeyboardInput(keyCode, true);
+					simulation.ship.handleKeyboardInput(keyCode, true);
 				}
 
 				if(keyCode == KeyEvent.VK_D)
 				{
 					debug = !debug;
 				}
+				else if(keyCode == KeyEvent.VK_P)
+				{
+					showProfiler = !showProfiler;
+				}
 			}
 		}
 
 		public void keyReleased(KeyEvent e)
 		{
 			// Synchronized (to prevent concurrency issues)
-			synchronized(physTimer)
+			synchronized(simLock)
 			{
 				int keyCode = e.getKeyCode();
-				if(ship != null)
+				if(simulation.ship != null)
 				{
-					ship.handleKeyboardInput(keyCode, false);
+					simulation.ship.handleKeyboardInput(keyCode, false);
 				}
 			}
 		}
@@ -473,11 +522,11 @@ public class GamePanel extends JPanel
 		public void mouseMoved(MouseEvent e)
 		{
 			// Synchronized (to prevent concurrency issues)
-			synchronized(physTimer)
+			synchronized(simLock)
 			{
-				if(ship != null)
+				if(simulation.ship != null)
 				{
-					ship.handleMouseMotion(e.getX(), e.getY());
+					simulation.ship.handleMouseMotion(e.getX(), e.getY());
 				}
 			}
 		}
@@ -485,11 +534,11 @@ public class GamePanel extends JPanel
 		public void mousePressed(MouseEvent e)
 		{
 			// Synchronized (to prevent concurrency issues)
-			synchronized(physTimer)
+			synchronized(simLock)
 			{
-				if(ship != null)
+				if(simulation.ship != null)
 				{
-					ship.handleMouseInput(e.getButton());
+					simulation.ship.handleMouseInput(e.getButton());
 				}
 			}
 		}
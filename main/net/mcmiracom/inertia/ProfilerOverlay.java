@@ -0,0 +1,210 @@
+package net.mcmiracom.inertia;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Draws the recent step and frame timings from Globals.stepProfiler and Globals.frameProfiler (toggled with P)
+ *
+ * Each graph has one stacked bar per run (colored by phase), against a line at the time budget of a single frame. The
+ * text (50th and 99th percentiles of each phase, the number of entities, enemy AI, and garbage collections) is only
+ * updated a few times per second.
+ *
+ * @author Aaron Jacobs
+ */
+public class ProfilerOverlay
+{
+	private static final int GRAPH_HEIGHT = 100; // Pixels per frame budget
+	private static final int TEXT_WIDTH = 300, LINE_HEIGHT = 14;
+	private static final int REFRESHES_PER_SECOND = 2;
+	private static final long BUDGET_NANOS = 1000000000L / Globals.FRAMES_PER_SECOND;
+	private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+	private static final Color BACKDROP = new Color(0, 0, 0, 160);
+	private static final Color[] PHASE_COLORS = {
+			new Color(230, 80, 80), new Color(240, 160, 40), new Color(230, 230, 60), new Color(110, 210, 90), new Color(60, 200, 200),
+			new Color(80, 130, 240), new Color(170, 100, 230), new Color(230, 110, 200), new Color(190, 190, 190)};
+
+	private final long[] stepRuns, frameRuns, scratch;
+	private final CachedLayer text;
+	private final List<GarbageCollectorMXBean> collectors;
+	private final long[] gcCounts, gcTimes; // Totals at each of the recent refreshes (covering the profiler window)
+	private int numRefreshes;
+	private long lastRefresh;
+
+	// What the text shows
+	private int numStepRuns, numFrameRuns, numBodies, numEnemies, numLasers, numAnimations;
+	private int numThought, numDeferred, numNear, numMiddle, numFar;
+	private long thinkNanos;
+	private long recentGcCount, recentGcTime;
+
+	public ProfilerOverlay()
+	{
+		int window = Math.max(Globals.stepProfiler.window, Globals.frameProfiler.window);
+		stepRuns = new long[Globals.stepProfiler.window * Globals.stepProfiler.numPhases];
+		frameRuns = new long[Globals.frameProfiler.window * Globals.frameProfiler.numPhases];
+		scratch = new long[window];
+
+		collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		int numGcSamples = ((Profiler.DEFAULT_WINDOW * REFRESHES_PER_SECOND) / Globals.STEPS_PER_SECOND) + 1;
+		gcCounts = new long[numGcSamples];
+		gcTimes = new long[numGcSamples];
+		numRefreshes = 0;
+		lastRefresh = 0L;
+
+		int numLines = Globals.stepProfiler.numPhases + Globals.frameProfiler.numPhases + 10;
+		text = new CachedLayer(TEXT_WIDTH, numLines * LINE_HEIGHT, Transparency.TRANSLUCENT) {
+			protected void paint(Graphics2D layer2D)
+			{
+				paintText(layer2D);
+			}
+		};
+	}
+
+	/**
+	 * Draws the overlay in the upper right corner
+	 *
+	 * @param canvas2D The canvas to draw on
+	 * @param snapshot The snapshot being drawn (for the entity counts)
+	 */
+	public void draw(Graphics2D canvas2D, RenderSnapshot snapshot)
+	{
+		numStepRuns = Globals.stepProfiler.copyRecent(stepRuns);
+		numFrameRuns = Globals.frameProfiler.copyRecent(frameRuns);
+
+		long now = System.nanoTime();
+		if(now - lastRefresh >= 1000000000L / REFRESHES_PER_SECOND)
+		{
+			lastRefresh = now;
+			numBodies = snapshot.numBodies;
+			numEnemies = snapshot.numEnemies;
+			numLasers = snapshot.numLasers;
+			numAnimations = snapshot.numAnimations;
+			numThought = snapshot.numThought;
+			numDeferred = snapshot.numDeferred;
+			numNear = snapshot.numAtLevel[AIScheduler.NEAR];
+			numMiddle = snapshot.numAtLevel[AIScheduler.MIDDLE];
+			numFar = snapshot.numAtLevel[AIScheduler.FAR];
+			thinkNanos = snapshot.thinkNanos;
+			sampleGarbageCollection();
+			text.invalidate();
+		}
+
+		int graphWidth = Math.max(Globals.stepProfiler.window, Globals.frameProfiler.window);
+		int x = Globals.panelWidth - Math.max(graphWidth, TEXT_WIDTH) - 10;
+		int y = 10;
+
+		canvas2D.setColor(BACKDROP);
+		canvas2D.fillRect(x - 5, y - 5, Math.max(graphWidth, TEXT_WIDTH) + 10, (GRAPH_HEIGHT * 2) + text.height + 25);
+
+		drawGraph(canvas2D, Globals.stepProfiler, stepRuns, numStepRuns, x, y);
+		drawGraph(canvas2D, Globals.frameProfiler, frameRuns, numFrameRuns, x, y + GRAPH_HEIGHT + 10);
+		text.draw(canvas2D, x, y + (GRAPH_HEIGHT * 2) + 20);
+	}
+
+	/**
+	 * Draws a stacked bar for each run
+	 */
+	private void drawGraph(Graphics2D canvas2D, Profiler profiler, long[] runs, int count, int x, int y)
+	{
+		int bottom = y + GRAPH_HEIGHT;
+		for(int run = 0; run < count; ++run)
+		{
+			int barX = x + (profiler.window - count) + run;
+			int barY = bottom;
+			for(int phase = 0; phase < profiler.numPhases; ++phase)
+			{
+				int height = (int)((runs[(run * profiler.numPhases) + phase] * GRAPH_HEIGHT) / BUDGET_NANOS);
+				if(height > 0)
+				{
+					if(barY - height < y)
+					{
+						height = barY - y; // Clip at the top of the graph
+					}
+					canvas2D.setColor(PHASE_COLORS[phase % PHASE_COLORS.length]);
+					canvas2D.fillRect(barX, barY - height, 1, height);
+					barY -= height;
+				}
+			}
+		}
+
+		// The time budget of a single frame
+		canvas2D.setColor(Color.white);
+		canvas2D.drawLine(x, y, x + profiler.window - 1, y);
+	}
+
+	/**
+	 * Draws the percentiles, entity counts, and garbage collections
+	 */
+	private void paintText(Graphics2D layer2D)
+	{
+		layer2D.setFont(FONT);
+		int y = LINE_HEIGHT;
+
+		y = paintPercentiles(layer2D, "Step", Globals.stepProfiler, stepRuns, numStepRuns, y);
+		y = paintPercentiles(layer2D, "Frame", Globals.frameProfiler, frameRuns, numFrameRuns, y);
+
+		layer2D.setColor(Color.white);
+		layer2D.drawString("Bodies " + numBodies + "  Enemies " + numEnemies + "  Lasers " + numLasers + "  Anim " + numAnimations, 0, y);
+		y += LINE_HEIGHT;
+		layer2D.drawString("AI near " + numNear + "  mid " + numMiddle + "  far " + numFar + "  thought " + numThought, 0, y);
+		y += LINE_HEIGHT;
+		layer2D.setColor(numDeferred > 0 ? PHASE_COLORS[0] : Color.white); // Red when over budget
+		layer2D.drawString(String.format("AI %.2f of %.2f ms, %d deferred", thinkNanos / 1000000.0, Globals.aiBudgetMillis, numDeferred), 0, y);
+		y += LINE_HEIGHT;
+		layer2D.setColor(Color.white);
+		layer2D.drawString("GC " + recentGcCount + " collections, " + recentGcTime + " ms (last " + (Profiler.DEFAULT_WINDOW / Globals.STEPS_PER_SECOND) + " s)", 0, y);
+	}
+
+	/**
+	 * Draws the 50th and 99th percentile of each phase (and the total) of a profiler
+	 *
+	 * @return The y coordinate of the next line
+	 */
+	private int paintPercentiles(Graphics2D layer2D, String title, Profiler profiler, long[] runs, int count, int y)
+	{
+		layer2D.setColor(Color.white);
+		layer2D.drawString(String.format("%-13s %7s %7s", title + " (ms)", "p50", "p99"), 0, y);
+		y += LINE_HEIGHT;
+
+		for(int phase = 0; phase < profiler.numPhases; ++phase)
+		{
+			layer2D.setColor(PHASE_COLORS[phase % PHASE_COLORS.length]);
+			layer2D.fillRect(0, y - 9, 8, 8);
+			layer2D.setColor(Color.lightGray);
+			layer2D.drawString(String.format("  %-11s %7.2f %7.2f", profiler.phaseNames[phase], profiler.percentile(runs, count, phase, 0.5, scratch) / 1000000.0, profiler.percentile(runs, count, phase, 0.99, scratch) / 1000000.0), 0, y);
+			y += LINE_HEIGHT;
+		}
+
+		layer2D.setColor(Color.white);
+		layer2D.drawString(String.format("  %-11s %7.2f %7.2f", "Total", profiler.percentile(runs, count, -1, 0.5, scratch) / 1000000.0, profiler.percentile(runs, count, -1, 0.99, scratch) / 1000000.0), 0, y);
+		return y + LINE_HEIGHT + (LINE_HEIGHT / 2);
+	}
+
+	/**
+	 * Reads the garbage collection totals, and works out how many collections (and how long they took) happened over the
+	 * profiler window
+	 */
+	private void sampleGarbageCollection()
+	{
+		long count = 0L, time = 0L;
+		for(int i = 0; i < collectors.size(); ++i)
+		{
+			count += Math.max(0L, collectors.get(i).getCollectionCount());
+			time += Math.max(0L, collectors.get(i).getCollectionTime());
+		}
+
+		int slot = numRefreshes % gcCounts.length;
+		int oldest = numRefreshes < gcCounts.length ? 0 : (numRefreshes + 1) % gcCounts.length;
+		gcCounts[slot] = count;
+		gcTimes[slot] = time;
+		++numRefreshes;
+
+		recentGcCount = count - gcCounts[oldest];
+		recentGcTime = time - gcTimes[oldest];
+	}
+}
@@ -0,0 +1,264 @@
+package net.mcmiracom.inertia;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Everything needed to draw a single frame, captured by the simulation at the end of a step
+ *
+ * Snapshots are pooled (see TripleBuffer), and are never modified while the paint code is reading them. Positions are
+ * stored for both the previous and the current step, so that drawing can interpolate between them.
+ *
+ * @author Aaron Jacobs
+ */
+public class RenderSnapshot
+{
+	private static final int INITIAL_CAPACITY = 256;
+
+	protected long time; // The (System.nanoTime) time that the current step represents
+	protected boolean published;
+
+	// Camera target (center of the player)
+	protected double targetX, targetY, previousTargetX, previousTargetY;
+
+	// HUD
+	protected int health, maxHealth, numEnemies;
+
+	// Profiler overlay
+	protected int numBodies, numLasers, numAnimations;
+	protected int numThought, numDeferred; // Enemies that thought (or ran out of time to) in the last step
+	protected int[] numAtLevel = new int[AIScheduler.NUM_LEVELS]; // Enemies at each AI level of detail
+	protected long thinkNanos;
+
+	// Sprites (positions are the upper left corner, in world coordinates)
+	protected int numSprites;
+	private BufferedImage[] spriteTextures;
+	private double[] spriteX, spriteY, spritePreviousX, spritePreviousY;
+	private double[] spriteWidth, spriteHeight, spriteAngle;
+	private boolean[] spriteRotated;
+
+	// Debug lines and rectangles (world coordinates)
+	private int numLines;
+	private double[] lineX1, lineY1, lineX2, lineY2;
+	private Color[] lineColors;
+	private int numRects;
+	private double[] rectX, rectY, rectWidth, rectHeight;
+	private Color[] rectColors;
+
+	private AffineTransform affineTransform; // Only used by the reader
+
+	public RenderSnapshot()
+	{
+		time = 0L;
+		published = false;
+
+		spriteTextures = new BufferedImage[INITIAL_CAPACITY];
+		spriteX = new double[INITIAL_CAPACITY];
+		spriteY = new double[INITIAL_CAPACITY];
+		spritePreviousX = new double[INITIAL_CAPACITY];
+		spritePreviousY = new double[INITIAL_CAPACITY];
+		spriteWidth = new double[INITIAL_CAPACITY];
+		spriteHeight = new double[INITIAL_CAPACITY];
+		spriteAngle = new double[INITIAL_CAPACITY];
+		spriteRotated = new boolean[INITIAL_CAPACITY];
+
+		lineX1 = new double[INITIAL_CAPACITY];
+		lineY1 = new double[INITIAL_CAPACITY];
+		lineX2 = new double[INITIAL_CAPACITY];
+		lineY2 = new double[INITIAL_CAPACITY];
+		lineColors = new Color[INITIAL_CAPACITY];
+
+		rectX = new double[INITIAL_CAPACITY];
+		rectY = new double[INITIAL_CAPACITY];
+		rectWidth = new double[INITIAL_CAPACITY];
+		rectHeight = new double[INITIAL_CAPACITY];
+		rectColors = new Color[INITIAL_CAPACITY];
+
+		affineTransform = new AffineTransform();
+	}
+
+	/**
+	 * Empties the snapshot so that it can be refilled (keeps the storage)
+	 */
+	public void clear()
+	{
+		numSprites = 0;
+		numLines = 0;
+		numRects = 0;
+	}
+
+	/**
+	 * Adds a sprite to the frame
+	 *
+	 * @param texture The image to draw
+	 * @param previousX The x coordinate of the upper left corner after the previous step
+	 * @param previousY The y coordinate of the upper left corner after the previous step
+	 * @param x The x coordinate of the upper left corner
+	 * @param y The y coordinate of the upper left corner
+	 * @param width The width of the sprite
+	 * @param height The height of the sprite
+	 * @param angle The angle to rotate the sprite by (around its center)
+	 * @param rotated If the sprite should be rotated at all
+	 */
+	public void addSprite(BufferedImage texture, double previousX, double previousY, double x, double y, double width, double height, double angle, boolean rotated)
+	{
+		if(numSprites == spriteTextures.length)
+		{
+			int capacity = numSprites * 2;
+			spriteTextures = Arrays.copyOf(spriteTextures, capacity);
+			spriteX = Arrays.copyOf(spriteX, capacity);
+			spriteY = Arrays.copyOf(spriteY, capacity);
+			spritePreviousX = Arrays.copyOf(spritePreviousX, capacity);
+			spritePreviousY = Arrays.copyOf(spritePreviousY, capacity);
+			spriteWidth = Arrays.copyOf(spriteWidth, capacity);
+			spriteHeight = Arrays.copyOf(spriteHeight, capacity);
+			spriteAngle = Arrays.copyOf(spriteAngle, capacity);
+			spriteRotated = Arrays.copyOf(spriteRotated, capacity);
+		}
+
+		int i = numSprites++;
+		spriteTextures[i] = texture;
+		spritePreviousX[i] = previousX;
+		spritePreviousY[i] = previousY;
+		spriteX[i] = x;
+		spriteY[i] = y;
+		spriteWidth[i] = width;
+		spriteHeight[i] = height;
+		spriteAngle[i] = angle;
+		spriteRotated[i] = rotated;
+	}
+
+	/**
+	 * Adds a (debug) line to the frame
+	 */
+	public void addLine(double x1, double y1, double x2, double y2, Color color)
+	{
+		if(numLines == lineColors.length)
+		{
+			int capacity = numLines * 2;
+			lineX1 = Arrays.copyOf(lineX1, capacity);
+			lineY1 = Arrays.copyOf(lineY1, capacity);
+			lineX2 = Arrays.copyOf(lineX2, capacity);
+			lineY2 = Arrays.copyOf(lineY2, capacity);
+			lineColors = Arrays.copyOf(lineColors, capacity);
+		}
+
+		int i = numLines++;
+		lineX1[i] = x1;
+		lineY1[i] = y1;
+		lineX2[i] = x2;
+		lineY2[i] = y2;
+		lineColors[i] = color;
+	}
+
+	/**
+	 * Adds a (debug) rectangle outline to the frame
+	 */
+	public void addRect(double x, double y, double width, double height, Color color)
+	{
+		if(numRects == rectColors.length)
+		{
+			int capacity = numRects * 2;
+			rectX = Arrays.copyOf(rectX, capacity);
+			rectY = Arrays.copyOf(rectY, capacity);
+			rectWidth = Arrays.copyOf(rectWidth, capacity);
+			rectHeight = Arrays.copyOf(rectHeight, capacity);
+			rectColors = Arrays.copyOf(rectColors, capacity);
+		}
+
+		int i = numRects++;
+		rectX[i] = x;
+		rectY[i] = y;
+		rectWidth[i] = width;
+		rectHeight[i] = height;
+		rectColors[i] = color;
+	}
+
+	/**
+	 * @param alpha How far (0.0 - 1.0) to interpolate from the previous step to the current one
+	 * @return The x coordinate the camera should center on
+	 */
+	public double getTargetX(double alpha)
+	{
+		return previousTargetX + ((targetX - previousTargetX) * alpha);
+	}
+
+	/**
+	 * @param alpha How far (0.0 - 1.0) to interpolate from the previous step to the current one
+	 * @return The y coordinate the camera should center on
+	 */
+	public double getTargetY(double alpha)
+	{
+		return previousTargetY + ((targetY - previousTargetY) * alpha);
+	}
+
+	/**
+	 * Draws the sprites and debug shapes, relative to the camera
+	 *
+	 * @param canvas2D The canvas to draw on
+	 * @param camera The camera to draw relative to
+	 * @param alpha How far (0.0 - 1.0) to interpolate from the previous step to the current one
+	 */
+	public void draw(Graphics2D canvas2D, Camera camera, double alpha)
+	{
+		double cameraX = camera.bounds.getX(), cameraY = camera.bounds.getY();
+		RotationCache rotationCache = Globals.rotationCache;
+
+		/********** Sprites **********/
+		for(int i = 0; i < numSprites; ++i)
+		{
+			double x = spritePreviousX[i] + ((spriteX[i] - spritePreviousX[i]) * alpha) - cameraX;
+			double y = spritePreviousY[i] + ((spriteY[i] - spritePreviousY[i]) * alpha) - cameraY;
+
+			// Cached textures are only close to the sprite's size (or may not be scaled yet), so stretch them to fit
+			BufferedImage texture = spriteTextures[i];
+			boolean stretched = texture.getWidth() != (int)spriteWidth[i] || texture.getHeight() != (int)spriteHeight[i];
+
+			// Pre-rotated frames are drawn at their own size, centered on the sprite - close enough if the texture is the
+			// sprite's cached size (within half a quantum)
+			boolean cachedSize = TextureCache.quantize(texture.getWidth()) == TextureCache.quantize((int)spriteWidth[i]) && TextureCache.quantize(texture.getHeight()) == TextureCache.quantize((int)spriteHeight[i]);
+
+			if(spriteRotated[i] && cachedSize && rotationCache.draw(canvas2D, texture, x + (spriteWidth[i] / 2), y + (spriteHeight[i] / 2), spriteAngle[i]))
+			{
+				// Drawn from the closest pre-rotated frame
+			}
+			else if(spriteRotated[i])
+			{
+				// Not pre-rotated yet, so transform the texture
+				affineTransform.setToTranslation(x, y); // Translate into position
+				affineTransform.translate(spriteWidth[i] / 2, spriteHeight[i] / 2); // Translate to the center of the sprite
+				affineTransform.rotate(spriteAngle[i]); // Rotate the sprite
+				affineTransform.translate(-spriteWidth[i] / 2, -spriteHeight[i] / 2); // Translate back to the main position
+				if(stretched)
+				{
+					affineTransform.scale(spriteWidth[i] / texture.getWidth(), spriteHeight[i] / texture.getHeight());
+				}
+				canvas2D.drawImage(texture, affineTransform, null);
+			}
+			else if(stretched)
+			{
+				canvas2D.drawImage(texture, (int)(x + 0.5), (int)(y + 0.5), (int)(spriteWidth[i] + 0.5), (int)(spriteHeight[i] + 0.5), null);
+			}
+			else
+			{
+				canvas2D.drawImage(texture, (int)(x + 0.5), (int)(y + 0.5), null);
+			}
+		}
+
+		/********** Debug **********/
+		for(int i = 0; i < numRects; ++i)
+		{
+			canvas2D.setColor(rectColors[i]);
+			canvas2D.drawRect((int)(rectX[i] - cameraX), (int)(rectY[i] - cameraY), (int)rectWidth[i], (int)rectHeight[i]);
+		}
+
+		for(int i = 0; i < numLines; ++i)
+		{
+			canvas2D.setColor(lineColors[i]);
+			canvas2D.drawLine((int)(lineX1[i] - cameraX), (int)(lineY1[i] - cameraY), (int)(lineX2[i] - cameraX), (int)(lineY2[i] - cameraY));
+		}
+	}
+}
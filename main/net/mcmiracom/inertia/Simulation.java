@@ -0,0 +1,335 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The game world and everything in it, without any display
+ *
+ * The GamePanel drives one of these at a fixed time step and draws it - run this class on its own to step the same world
+ * as fast as possible with no window (java net.mcmiracom.inertia.Simulation [steps] [easy|medium|hard] [seed]
+ * [aiBudgetMillis]).
+ *
+ * @author Aaron Jacobs
+ */
+public class Simulation
+{
+	public static final int DEFAULT_HEADLESS_STEPS = 3600; // One minute of game time
+	public static final double SPAWN_CLEARANCE = 300.0; // Nothing spawns closer than this to the player
+	public static final double SPAWN_SPACING = 2.0; // How much more room than needed the spawn points are spread over
+
+	protected Player ship;
+	protected World world;
+	protected int numEnemies;
+
+	private BufferedImage shipTexture, meteoroidTexture;
+
+	public Simulation()
+	{
+		numEnemies = 0;
+
+		// Load files
+		loadFiles();
+	}
+
+	/**
+	 * Builds a new world (using the current settings in Globals)
+	 */
+	public void reset()
+	{
+		Globals.animations.clear();
+		Globals.aiScheduler.reset();
+		GameObject.allGameObjects = new ArrayList<GameObject>();
+		Laser.clear();
+		Globals.gameOver = false;
+
+		long seed = Globals.worldSeed;
+		if(seed == 0L)
+		{
+			seed = new SplittableRandom().nextLong();
+		}
+		world = new World(seed);
+		Globals.camera = new Camera(0.0, 0.0, Globals.panelWidth, Globals.panelHeight);
+		Globals.physics = new PhysicsState();
+		Globals.grid = new Grid(Globals.levelSize, Globals.levelSize, Globals.gridQuality);
+		Globals.quadTree = new QuadTree(Globals.levelSize, Globals.openingAngle);
+
+		ship = new Player(Globals.DEFAULT_MASS, Player.maxHealth);
+		ship.setTexture(shipTexture, true);
+		ship.setPosition((Globals.levelSize / 2) - (ship.bounds.getWidth() / 2), (Globals.levelSize / 2) - (ship.bounds.getHeight() / 2));
+
+		int numMeteoroids = meteoroidsForFrequency(Globals.difficulty);
+		int numEnemies = enemiesForDifficulty();
+		double[] spawnPoints = findSpawnPoints(numMeteoroids + numEnemies);
+		generateMeteoroids(spawnPoints, 0, numMeteoroids);
+		generateEnemies(spawnPoints, numMeteoroids, numEnemies);
+
+		Globals.grid.rebuild(Globals.physics);
+		countEnemies();
+	}
+
+	/**
+	 * Advances the world by one fixed time step (the caller begins and ends the run in Globals.stepProfiler)
+	 */
+	public void step()
+	{
+		/********** Physics calculations **********/
+		Globals.physics.step(Globals.timeStep);
+
+		/********** Lasers **********/
+		for(int i = 0; i < Laser.allLasers.size(); ++i)
+		{
+			if(Laser.allLasers.get(i).active)
+			{
+				Laser.allLasers.get(i).move();
+			}
+		}
+		Laser.removeDeleted();
+		Globals.stepProfiler.mark(Profiler.LASERS);
+
+		/********** Animations **********/
+		Globals.animations.step(Globals.timeStep);
+		Globals.stepProfiler.mark(Profiler.ANIMATIONS);
+
+		/********** Remove the dead **********/
+		if(Globals.physics.compact())
+		{
+			Globals.grid.rebuild(Globals.physics);
+		}
+
+		countEnemies();
+		Globals.stepProfiler.mark(Profiler.CLEANUP);
+	}
+
+	/**
+	 * Counts the remaining enemies (the game is over once they're all gone)
+	 */
+	private void countEnemies()
+	{
+		numEnemies = Globals.physics.countOf(PhysicsState.ENEMY);
+		if(numEnemies == 0)
+		{
+			Globals.gameOver = true;
+		}
+	}
+
+	/**
+	 * Finds evenly spread places for new bodies (no two too close, and none too close to the player)
+	 * 
+	 * @param numBodies The number of places to find
+	 * @return The places, as x and y pairs ({x0, y0, x1, y1, ...}), in a random order
+	 */
+	private double[] findSpawnPoints(int numBodies)
+	{
+		double size = Globals.levelSize;
+		double clearArea = Math.PI * SPAWN_CLEARANCE * SPAWN_CLEARANCE;
+		double minDistance = Math.sqrt(Math.max((size * size) - clearArea, 1.0) / (Math.max(numBodies, 1) * SPAWN_SPACING));
+
+		// Sample the world (packing the points closer if that didn't give enough of them)
+		double[] points;
+		do
+		{
+			points = new PoissonDiskSampler(size, size, minDistance, ship.position.x, ship.position.y, SPAWN_CLEARANCE).sample(world.random);
+			minDistance *= 0.8;
+		}while(points.length / 2 < numBodies && minDistance > 1.0);
+
+		// Pick which of the points to use (by partially shuffling them)
+		int numPoints = points.length / 2;
+		int numChosen = Math.min(numBodies, numPoints);
+		for(int i = 0; i < numChosen; ++i)
+		{
+			int j = i + world.random.nextInt(numPoints - i);
+			double x = points[i * 2], y = points[(i * 2) + 1];
+			points[i * 2] = points[j * 2];
+			points[(i * 2) + 1] = points[(j * 2) + 1];
+			points[j * 2] = x;
+			points[(j * 2) + 1] = y;
+		}
+
+		return Arrays.copyOf(points, numChosen * 2);
+	}
+
+	/**
+	 * @param frequency The frequency of the meteoroids in the field
+	 * @return The number of meteoroids in the field
+	 */
+	private int meteoroidsForFrequency(int frequency)
+	{
+		int totalArea = Globals.levelSize;
+		return totalArea / frequency;
+	}
+
+	/**
+	 * Generates a meteoroid field
+	 * 
+	 * @param spawnPoints The places to put the meteoroids
+	 * @param first The first place to use
+	 * @param numMeteoroids The number of meteoroids
+	 */
+	private void generateMeteoroids(double[] spawnPoints, int first, int numMeteoroids)
+	{
+		for(int i = first; i < first + numMeteoroids && (i * 2) < spawnPoints.length; ++i)
+		{
+			PhysObject meteoroid = new PhysObject(Globals.DEFAULT_MASS);
+			meteoroid.setPosition(spawnPoints[i * 2], spawnPoints[(i * 2) + 1]);
+			meteoroid.velocity.x = (world.random.nextDouble() * 600) - 300;
+			meteoroid.velocity.y = (world.random.nextDouble() * 600) - 300;
+			meteoroid.setTexture(meteoroidTexture, true);
+		}
+	}
+
+	/**
+	 * @return The number of enemy ships for the difficulty
+	 */
+	private int enemiesForDifficulty()
+	{
+		int numEnemies = 15;
+		switch(Globals.difficulty)
+		{
+		case Globals.EASY:
+			numEnemies = 15;
+			break;
+		case Globals.MEDIUM:
+			numEnemies = 30;
+			break;
+		case Globals.HARD:
+			numEnemies = 60;
+			break;
+		}
+		return numEnemies;
+	}
+
+	/**
+	 * Generates the enemy ships
+	 * 
+	 * @param spawnPoints The places to put the enemies
+	 * @param first The first place to use
+	 * @param numEnemies The number of enemies
+	 */
+	private void generateEnemies(double[] spawnPoints, int first, int numEnemies)
+	{
+		for(int i = first; i < first + numEnemies && (i * 2) < spawnPoints.length; ++i)
+		{
+			Enemy enemy = new Enemy(Globals.DEFAULT_MASS, Globals.DEFAULT_HEALTH / 2);
+			enemy.setTexture(shipTexture, true);
+			enemy.setPosition(spawnPoints[i * 2], spawnPoints[(i * 2) + 1]);
+		}
+	}
+
+	/**
+	 * Loads the required images (through Globals.textures, so that they can be stubbed out when there's no display)
+	 */
+	private void loadFiles()
+	{
+		Globals.loadImages();
+
+		shipTexture = Globals.textures.load("ship.png");
+		meteoroidTexture = Globals.textures.load("meteoroid.png");
+	}
+
+	/**
+	 * Steps a world with no window, as fast as possible, and reports how long it took
+	 *
+	 * @param args The number of steps to run (optional), the difficulty - easy, medium, or hard (optional), the world
+	 *            seed (optional), and the AI time budget in milliseconds (optional - 0 for none, so that runs of the same
+	 *            seed come out the same)
+	 */
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		Globals.textures = new HeadlessTextures();
+
+		int steps = DEFAULT_HEADLESS_STEPS;
+		if(args.length > 0)
+		{
+			steps = Integer.parseInt(args[0]);
+		}
+
+		String difficulty = "medium";
+		if(args.length > 1)
+		{
+			difficulty = args[1].toLowerCase();
+		}
+
+		// Same settings as the LauncherWindow
+		if(difficulty.equals("easy"))
+		{
+			Globals.difficulty = Globals.EASY;
+			Globals.levelSize = Globals.SMALL_WORLD;
+			Player.maxHealth = Globals.DEFAULT_HEALTH * 5;
+		}
+		else if(difficulty.equals("hard"))
+		{
+			Globals.difficulty = Globals.HARD;
+			Globals.levelSize = Globals.LARGE_WORLD;
+			Player.maxHealth = Globals.DEFAULT_HEALTH * 3;
+		}
+		else
+		{
+			Globals.difficulty = Globals.MEDIUM;
+			Globals.levelSize = Globals.MEDIUM_WORLD;
+			Player.maxHealth = Globals.DEFAULT_HEALTH * 4;
+		}
+		Globals.gridQuality = Globals.MEDIUM_QUALITY;
+
+		if(args.length > 2)
+		{
+			Globals.worldSeed = Long.parseLong(args[2]);
+		}
+
+		if(args.length > 3)
+		{
+			Globals.aiBudgetMillis = Double.parseDouble(args[3]);
+		}
+
+		Simulation simulation = new Simulation();
+		simulation.reset();
+
+		long startTime = System.nanoTime();
+		for(int i = 0; i < steps; ++i)
+		{
+			GameEvents.Tick event = new GameEvents.Tick();
+			event.begin();
+			Globals.stepProfiler.begin();
+			simulation.step();
+			Globals.stepProfiler.end();
+			event.end();
+			if(event.shouldCommit())
+			{
+				event.numBodies = Globals.physics.size();
+				event.numEnemies = simulation.numEnemies;
+				event.numLasers = Laser.allLasers.size();
+				event.timeStep = (long)(Globals.timeStep * 1000000000L);
+				event.commit();
+			}
+		}
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		double seconds = elapsedNanos / 1000000000.0;
+		System.out.println("Seed " + simulation.world.seed + ": " + steps + " steps (" + Globals.physics.size() + " bodies, " + Globals.physics.countSleeping() + " asleep, " + simulation.numEnemies + " enemies left) in "
+				+ String.format("%.3f", seconds) + " s: " + String.format("%.1f", steps / seconds) + " steps per second");
+
+		// Where the time went, over the last few seconds of steps
+		Profiler profiler = Globals.stepProfiler;
+		long[] runs = new long[profiler.window * profiler.numPhases];
+		long[] scratch = new long[profiler.window];
+		int count = profiler.copyRecent(runs);
+		System.out.println(String.format("%-12s %9s %9s (ms, last %d steps)", "Phase", "p50", "p99", count));
+		for(int phase = -1; phase < profiler.numPhases; ++phase)
+		{
+			String name = phase < 0 ? "Total" : profiler.phaseNames[phase];
+			System.out.println(String.format("%-12s %9.3f %9.3f", name, profiler.percentile(runs, count, phase, 0.5, scratch) / 1000000.0, profiler.percentile(runs, count, phase, 0.99, scratch) / 1000000.0));
+		}
+
+		// How much thinking the enemies did (and how often they ran out of time)
+		AIScheduler ai = Globals.aiScheduler;
+		if(ai.numSteps > 0)
+		{
+			String budget = Globals.aiBudgetMillis > 0.0 ? String.format("over the %.2f ms budget on %d of %d steps", Globals.aiBudgetMillis, ai.stepsOverBudget, ai.numSteps) : "no budget";
+			System.out.println(String.format("AI: %.1f thoughts and %.3f ms per step, %d deferred, %s", ai.totalThoughts / (double)ai.numSteps, ai.totalThinkNanos / (ai.numSteps * 1000000.0),
+					ai.totalDeferred, budget));
+		}
+	}
+}
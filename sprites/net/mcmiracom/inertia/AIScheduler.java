@@ -0,0 +1,245 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+
+/**
+ * Decides which Enemy ships think (steer around meteoroids and aim at the player) on each physics step
+ *
+ * Every enemy gets a level of detail from how close it is to the player or the camera: NEAR enemies think every step,
+ * MIDDLE enemies every few steps, and FAR enemies only now and then - and then only to steer around meteoroids, since
+ * they are too far away to shoot at anything. Between thoughts, an enemy keeps thrusting the way it last decided to. Each
+ * enemy thinks on its own phase of its period, so the thinking is spread evenly over the steps instead of bunching up.
+ *
+ * Thinking is limited to Globals.aiBudgetMillis per step (if it's above 0). Enemies that were left over when the time ran
+ * out go first, longest waiting first (so nobody is put off forever), then near enemies, then the rest. Any that are left when
+ * the time runs out think on the next step instead (coasting until then). Whether the budget runs out depends on how
+ * fast the machine is, so a seed only plays out the same way every time with no budget. The numbers from the last step,
+ * and the totals since the last reset, are kept for the profiler overlay and the headless report.
+ *
+ * @author Aaron Jacobs
+ */
+public class AIScheduler
+{
+	public static final int NEAR = 0, MIDDLE = 1, FAR = 2, NUM_LEVELS = 3;
+	private static final int[] PERIODS = {1, 4, 16}; // Steps between thoughts at each level
+	private static final double NEAR_DISTANCE = 1500.0; // Past the edge of the screen (and well past firing range)
+	private static final double MIDDLE_DISTANCE = 4000.0;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int tick;
+	private int nextPhase;
+	private int[][] due; // The ids of the enemies that think this step, at each level
+	private int[] numDue;
+	private int[] overdue, overdueLevels; // The ids (and levels) of the enemies left over from earlier steps
+	private long[] overdueOrder; // When each overdue enemy was first put off (high 32 bits) and its index in overdue
+	private int numOverdue;
+
+	// The last step
+	protected int numEnemies, numThought, numDeferred;
+	protected int[] numAtLevel;
+	protected long thinkNanos;
+
+	// Since the last reset
+	protected long numSteps, totalThoughts, totalDeferred, stepsOverBudget, totalThinkNanos;
+
+	public AIScheduler()
+	{
+		due = new int[NUM_LEVELS][INITIAL_CAPACITY];
+		numDue = new int[NUM_LEVELS];
+		overdue = new int[INITIAL_CAPACITY];
+		overdueLevels = new int[INITIAL_CAPACITY];
+		overdueOrder = new long[INITIAL_CAPACITY];
+		numAtLevel = new int[NUM_LEVELS];
+		reset();
+	}
+
+	/**
+	 * Forgets every enemy and statistic (for a new world)
+	 */
+	public void reset()
+	{
+		tick = 0;
+		nextPhase = 0;
+		Arrays.fill(numDue, 0);
+		numOverdue = 0;
+		Arrays.fill(numAtLevel, 0);
+		numEnemies = numThought = numDeferred = 0;
+		thinkNanos = 0L;
+		numSteps = totalThoughts = totalDeferred = stepsOverBudget = totalThinkNanos = 0L;
+	}
+
+	/**
+	 * Picks the enemies that think this step (before collisions, so that only they look out for meteoroids)
+	 *
+	 * @param state The state holding the enemies
+	 */
+	public void plan(PhysicsState state)
+	{
+		++tick;
+		Arrays.fill(numDue, 0);
+		numOverdue = 0;
+		Arrays.fill(numAtLevel, 0);
+		numEnemies = 0;
+
+		// Enemies near either the player or the camera are worth the attention
+		int player = -1;
+		for(int id = 0; id < state.count && player < 0; ++id)
+		{
+			if(state.kind[id] == PhysicsState.PLAYER && state.bodies[id].alive)
+			{
+				player = id;
+			}
+		}
+		boolean hasCamera = Globals.camera != null;
+		double cameraX = hasCamera ? Globals.camera.bounds.getCenterX() : 0.0;
+		double cameraY = hasCamera ? Globals.camera.bounds.getCenterY() : 0.0;
+
+		for(int id = 0; id < state.count; ++id)
+		{
+			if(state.kind[id] != PhysicsState.ENEMY || !state.bodies[id].alive)
+			{
+				continue;
+			}
+
+			Enemy enemy = (Enemy)state.bodies[id];
+			++numEnemies;
+
+			// The positions from the end of the last step (the same as the objects' views)
+			double distanceSquared = Double.MAX_VALUE;
+			if(player >= 0)
+			{
+				distanceSquared = distanceSquared(state, id, state.x[player], state.y[player]);
+			}
+			if(hasCamera)
+			{
+				distanceSquared = Math.min(distanceSquared, distanceSquared(state, id, cameraX, cameraY));
+			}
+
+			int level = FAR;
+			if(distanceSquared < NEAR_DISTANCE * NEAR_DISTANCE)
+			{
+				level = NEAR;
+			}
+			else if(distanceSquared < MIDDLE_DISTANCE * MIDDLE_DISTANCE)
+			{
+				level = MIDDLE;
+			}
+			++numAtLevel[level];
+
+			// Consecutive phases spread each level's enemies evenly over its period
+			if(enemy.aiPhase < 0)
+			{
+				enemy.aiPhase = nextPhase++;
+			}
+
+			boolean thinking = enemy.overdue || (tick + enemy.aiPhase) % PERIODS[level] == 0;
+			enemy.schedule(thinking);
+			if(enemy.overdue)
+			{
+				if(numOverdue == overdue.length)
+				{
+					overdue = Arrays.copyOf(overdue, numOverdue * 2);
+					overdueLevels = Arrays.copyOf(overdueLevels, numOverdue * 2);
+					overdueOrder = Arrays.copyOf(overdueOrder, numOverdue * 2);
+				}
+				overdue[numOverdue] = id;
+				overdueLevels[numOverdue] = level;
+				overdueOrder[numOverdue] = ((long)enemy.overdueSince << 32) | numOverdue;
+				++numOverdue;
+			}
+			else if(thinking)
+			{
+				if(numDue[level] == due[level].length)
+				{
+					due[level] = Arrays.copyOf(due[level], numDue[level] * 2);
+				}
+				due[level][numDue[level]++] = id;
+			}
+		}
+
+		// Longest waiting first
+		Arrays.sort(overdueOrder, 0, numOverdue);
+	}
+
+	/**
+	 * Lets the enemies picked by plan() think - the ones left over from earlier steps first, then nearest level first -
+	 * until the time budget runs out
+	 *
+	 * @param state The state holding the enemies
+	 */
+	public void run(PhysicsState state)
+	{
+		long start = System.nanoTime();
+		long budget = (long)(Globals.aiBudgetMillis * 1000000.0);
+		numThought = numDeferred = 0;
+
+		boolean outOfTime = false;
+		for(int i = 0; i < numOverdue; ++i)
+		{
+			int slot = (int)overdueOrder[i];
+			outOfTime = think(state, overdue[slot], overdueLevels[slot], outOfTime, start, budget);
+		}
+		for(int level = 0; level < NUM_LEVELS; ++level)
+		{
+			for(int i = 0; i < numDue[level]; ++i)
+			{
+				outOfTime = think(state, due[level][i], level, outOfTime, start, budget);
+			}
+		}
+
+		thinkNanos = System.nanoTime() - start;
+		++numSteps;
+		totalThoughts += numThought;
+		totalDeferred += numDeferred;
+		totalThinkNanos += thinkNanos;
+		if(numDeferred > 0)
+		{
+			++stepsOverBudget;
+		}
+	}
+
+	/**
+	 * Lets an enemy think, or puts it off until the next step if the time has run out
+	 *
+	 * @param state The state holding the enemy
+	 * @param id The id of the enemy
+	 * @param level The enemy's level of detail
+	 * @param outOfTime If the time has already run out
+	 * @param start When the thinking started (System.nanoTime)
+	 * @param budget The time budget (in nanoseconds, 0 for none)
+	 * @return If the time has run out
+	 */
+	private boolean think(PhysicsState state, int id, int level, boolean outOfTime, long start, long budget)
+	{
+		Enemy enemy = (Enemy)state.bodies[id];
+		if(!enemy.alive)
+		{
+			return outOfTime;
+		}
+
+		if(outOfTime)
+		{
+			if(!enemy.overdue)
+			{
+				enemy.overdue = true; // First in line next step (behind any that have waited longer)
+				enemy.overdueSince = tick;
+			}
+			++numDeferred;
+			return true;
+		}
+
+		enemy.think(level != FAR);
+		enemy.overdue = false;
+		++numThought;
+		return budget > 0L && System.nanoTime() - start > budget;
+	}
+
+	/**
+	 * @return The squared distance from a body to the point
+	 */
+	private static double distanceSquared(PhysicsState state, int id, double x, double y)
+	{
+		double dx = state.x[id] - x, dy = state.y[id] - y;
+		return (dx * dx) + (dy * dy);
+	}
+}
@@ -0,0 +1,147 @@
+package net.mcmiracom.inertia;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Advances every running sprite animation (stepped along with the simulation, so animations pause with the game)
+ *
+ * Each animation is a slot in a set of parallel arrays. When an animation runs out of frames, its object is deleted and
+ * the slot is filled with the last running animation.
+ *
+ * @author Aaron Jacobs
+ */
+public class Animations
+{
+	private static final int INITIAL_CAPACITY = 32;
+
+	private int count;
+	private GameObject[] objects;
+	private BufferedImage[][] frames;
+	private int[] frame;
+	private double[] frameTime; // Seconds of simulation time spent on the current frame
+	private double[] frameLength; // Seconds of simulation time per frame
+
+	public Animations()
+	{
+		count = 0;
+		objects = new GameObject[INITIAL_CAPACITY];
+		frames = new BufferedImage[INITIAL_CAPACITY][];
+		frame = new int[INITIAL_CAPACITY];
+		frameTime = new double[INITIAL_CAPACITY];
+		frameLength = new double[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Starts animating an object (its texture is set to the first frame right away)
+	 *
+	 * @param object The object to animate (deleted once the animation is over)
+	 * @param animationFrames The frames of the animation
+	 * @param secondsPerFrame How long each frame is shown (in simulation time)
+	 */
+	public void start(GameObject object, BufferedImage[] animationFrames, double secondsPerFrame)
+	{
+		if(count == objects.length)
+		{
+			grow(count * 2);
+		}
+
+		int slot = count++;
+		objects[slot] = object;
+		frames[slot] = animationFrames;
+		frame[slot] = 0;
+		frameTime[slot] = 0.0;
+		frameLength[slot] = secondsPerFrame;
+
+		object.setTexture(animationFrames[0], true);
+	}
+
+	/**
+	 * Advances every animation
+	 *
+	 * @param timeStep The length of the step (in seconds)
+	 */
+	public void step(double timeStep)
+	{
+		int slot = 0;
+		while(slot < count)
+		{
+			frameTime[slot] += timeStep;
+			boolean finished = false;
+			while(frameTime[slot] >= frameLength[slot])
+			{
+				frameTime[slot] -= frameLength[slot];
+				if(++frame[slot] >= frames[slot].length)
+				{
+					finished = true;
+					break;
+				}
+				objects[slot].setTexture(frames[slot][frame[slot]], true);
+			}
+
+			if(finished)
+			{
+				GameObject object = objects[slot];
+				remove(slot); // The last animation moves into this slot (so don't advance)
+				object.delete();
+			}
+			else
+			{
+				++slot;
+			}
+		}
+	}
+
+	/**
+	 * Ends every animation (deleting the animated objects)
+	 */
+	public void clear()
+	{
+		while(count > 0)
+		{
+			GameObject object = objects[count - 1];
+			remove(count - 1);
+			object.delete();
+		}
+	}
+
+	/**
+	 * @return The number of running animations
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Removes the animation in a slot (by moving the last animation into it)
+	 *
+	 * @param slot The slot to remove
+	 */
+	private void remove(int slot)
+	{
+		int last = --count;
+		objects[slot] = objects[last];
+		frames[slot] = frames[last];
+		frame[slot] = frame[last];
+		frameTime[slot] = frameTime[last];
+		frameLength[slot] = frameLength[last];
+
+		objects[last] = null;
+		frames[last] = null;
+	}
+
+	/**
+	 * Grows the arrays
+	 *
+	 * @param capacity The new capacity
+	 */
+	private void grow(int capacity)
+	{
+		objects = Arrays.copyOf(objects, capacity);
+		frames = Arrays.copyOf(frames, capacity);
+		frame = Arrays.copyOf(frame, capacity);
+		frameTime = Arrays.copyOf(frameTime, capacity);
+		frameLength = Arrays.copyOf(frameLength, capacity);
+	}
+}
@@ -24,7 +24,7 @@ public class ControllableObject extends PhysObject
 	 */
 	protected void shoot(double targetX, double targetY)
 	{
-		new Laser(this, targetX, targetY, this.angle);
+		Laser.create(this, targetX, targetY, this.angle);
 	}
 
 	/**
@@ -36,7 +36,7 @@ public class ControllableObject extends PhysObject
 	 */
 	protected void shoot(double targetX, double targetY, double angle)
 	{
-		new Laser(this, targetX, targetY, angle);
+		Laser.create(this, targetX, targetY, angle);
 	}
 
 	@Override
@@ -1,19 +1,30 @@
 package net.mcmiracom.inertia;
 
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 
 /**
  * Enemy class (controlled by AI)
  * 
+ * Enemies only think on the steps that Globals.aiScheduler picks for them, and keep thrusting the way they last decided
+ * to in between.
+ * 
  * @author Aaron Jacobs
  */
 public class Enemy extends ControllableObject
 {
 	private ArrayList<PhysObject> dangerousObjects;
-	private Player player = null;
-	private long cooldown, lastShotTime;
+	private long playerHandle; // The player (once they've come close enough to be seen)
+	private long cooldown;
+	private double timeSinceShot; // Seconds of simulation time
+
+	// Scheduling (see AIScheduler)
+	protected int aiPhase; // The step (out of each period) that we think on (-1 until the scheduler first sees us)
+	protected boolean thinking; // If we think this step
+	protected boolean overdue; // If we were due to think, but the AI ran out of time
+	protected int overdueSince; // The scheduler's step when we were first put off
+
+	// Reused every step (to avoid garbage)
+	private Vec2 awayFromObject, escape, anticipatedPlayerPosition, toAnticipatedPlayer, facing, difference;
 
 	public Enemy(double mass, int health)
 	{
@@ -24,31 +35,81 @@ public class Enemy extends ControllableObject
 
 		angle = 0;
 
+		playerHandle = PhysicsState.NO_HANDLE;
 		cooldown = 300;
-		lastShotTime = System.currentTimeMillis();
+		timeSinceShot = 0.0;
+
+		aiPhase = -1;
+		thinking = false;
+		overdue = false;
+
+		awayFromObject = new Vec2();
+		escape = new Vec2();
+		anticipatedPlayerPosition = new Vec2();
+		toAnticipatedPlayer = new Vec2();
+		facing = new Vec2();
+		difference = new Vec2();
 	}
 
 	@Override
 	protected void handleThrust()
+	{
+		// Keep steering the way we last decided to
+		acceleration.addOn(escape);
+	}
+
+	/**
+	 * Starts a step, and sets whether we think during it (called before collisions, so that we only look out for
+	 * meteoroids if we are)
+	 * 
+	 * @param thinking If we think this step
+	 */
+	protected void schedule(boolean thinking)
+	{
+		timeSinceShot += Globals.timeStep;
+
+		this.thinking = thinking;
+		if(thinking)
+		{
+			dangerousObjects.clear();
+		}
+	}
+
+	/**
+	 * Decides how to steer (and shoots, if the player is in sight)
+	 * 
+	 * @param attack If we should look for the player (far away enemies only steer)
+	 */
+	protected void think(boolean attack)
 	{
 		avoidMeteors();
 
+		if(!attack)
+		{
+			return;
+		}
+
+		PhysObject player = Globals.physics.resolve(playerHandle);
 		if(player != null)
 		{
-			attackPlayer();
+			attackPlayer(player);
 		}
 	}
 
 	/**
-	 * Uses vector math to try to avoid meteors
+	 * Uses vector math to try to avoid meteors (the thrust is left in escape)
 	 */
 	private void avoidMeteors()
 	{
-		Vec2 awayFromObject = null;
-		Vec2 escape = new Vec2();
+		escape.set(0.0, 0.0);
+		if(dangerousObjects.isEmpty())
+		{
+			return;
+		}
+
 		for(int i = 0; i < dangerousObjects.size(); ++i)
 		{
-			awayFromObject = this.position.subtract(dangerousObjects.get(i).position).normalize();
+			Vec2.normalizeInto(awayFromObject, Vec2.subtractInto(awayFromObject, this.position, dangerousObjects.get(i).position));
 
 			// If the "away" y velocity will head toward the object, flip it
 			if(dangerousObjects.get(i).position.y < this.position.y && awayFromObject.y < 0
@@ -76,17 +137,15 @@ public class Enemy extends ControllableObject
 		escape.selfNormalize();
 		escape.multiplyOn(Globals.THRUST_FORCE);
 
-		if(awayFromObject != null)
-		{
-			dangerousObjects.clear();
-			acceleration.addOn(escape);
-		}
+		dangerousObjects.clear();
 	}
 
 	/**
 	 * Attacks the player (if in range and in sight)
+	 * 
+	 * @param player The player
 	 */
-	private void attackPlayer()
+	private void attackPlayer(PhysObject player)
 	{
 		double distance = this.position.distance(player.position);
 		if(distance < 2)
@@ -95,52 +154,45 @@ public class Enemy extends ControllableObject
 		}
 		double thresholdAngle = (1 / Math.log10(distance)) * 2;
 
-		Vec2 anticipatedPlayerPosition = player.position.add(new Vec2(player.velocity.x * (distance / 20) * Globals.timeStep, player.velocity.y * (distance / 20) * Globals.timeStep));
-		Vec2 toAnticipatedPlayer = anticipatedPlayerPosition.subtract(this.position);
+		anticipatedPlayerPosition.set(player.position);
+		anticipatedPlayerPosition.multiplyAddOn(player.velocity, (distance / 20) * Globals.timeStep);
+		Vec2.subtractInto(toAnticipatedPlayer, anticipatedPlayerPosition, this.position);
 
-		Vec2 facing = new Vec2(Math.cos(angle), Math.sin(angle));
+		facing.set(Math.cos(angle), Math.sin(angle));
 
 		// If we are looking at the player
-		if(facing.angle(toAnticipatedPlayer) < thresholdAngle && distance < 700)
+		if(Vec2.angleBetween(facing, toAnticipatedPlayer) < thresholdAngle && distance < 700)
 		{
-			if(System.currentTimeMillis() - lastShotTime > cooldown)
+			if(timeSinceShot * 1000 > cooldown)
 			{
-				double laserAngle = Math.acos(toAnticipatedPlayer.normalize().dot(Globals.right));
+				double laserAngle = Math.acos(Vec2.normalizeInto(toAnticipatedPlayer, toAnticipatedPlayer).dot(Globals.right));
 				if(toAnticipatedPlayer.y < 0)
 				{
 					laserAngle = -laserAngle;
 				}
 				shoot(anticipatedPlayerPosition.x, anticipatedPlayerPosition.y, laserAngle);
-				lastShotTime = System.currentTimeMillis();
+				timeSinceShot = 0.0;
 			}
 		}
 	}
 
 	@Override
-	protected void handleAllCollisions()
+	protected void notice(PhysObject other)
 	{
-		checkBounds();
-
-		Globals.grid.handlePhysicsCollisions(this);
-		Globals.grid.handleBodyCollisions(this);
-	}
-
-	@Override
-	protected int handleCollisions(PhysObject other)
-	{
-		int code = super.handleCollisions(other);
-
 		if(other instanceof Player)
 		{
-			player = (Player)other;
+			playerHandle = other.handle;
 		}
-
-		return code;
 	}
 
 	@Override
 	protected int handleBodyCollision(PhysObject other)
 	{
+		if(!thinking)
+		{
+			return PhysObject.NO_EVENT; // Nothing to do with what we see until we think again
+		}
+
 		double distance = this.position.distance(other.position);
 		if(distance < 2)
 		{
@@ -149,7 +201,7 @@ public class Enemy extends ControllableObject
 		double thresholdAngle = (1 / Math.log10(distance)) * 2;
 
 		// If the other object is within 500 pixels of us, and they (or we) are on a collision course
-		if(distance < 500 && ((other.velocity.angle(this.position.subtract(other.position)) < thresholdAngle) || (this.velocity.angle(other.position.subtract(this.position)) < thresholdAngle)))
+		if(distance < 500 && ((Vec2.angleBetween(other.velocity, Vec2.subtractInto(difference, this.position, other.position)) < thresholdAngle) || (Vec2.angleBetween(this.velocity, Vec2.subtractInto(difference, other.position, this.position)) < thresholdAngle)))
 		{
 			dangerousObjects.add(other);
 		}
@@ -159,34 +211,25 @@ public class Enemy extends ControllableObject
 	}
 
 	@Override
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
 		// Don't draw if off screen
-		if((position.x - (bounds.getWidth() / 2)) - Globals.camera.bounds.getX() > Globals.panelWidth
-				|| position.x + (bounds.getWidth() / 2) - Globals.camera.bounds.getX() < 0
-				|| position.y - (bounds.getHeight() / 2) - Globals.camera.bounds.getY() > Globals.panelHeight
-				|| position.y + (bounds.getHeight() / 2) - Globals.camera.bounds.getY() < 0)
+		if(!isOnScreen())
 		{
 			return;
 		}
 
 		if(velocity.magnitude() > 10)
 		{
-			angle = Math.acos(velocity.normalize().dot(Globals.right));
+			angle = Math.acos(Vec2.normalizeInto(facing, velocity).dot(Globals.right));
 			if(velocity.y < 0)
 			{
 				angle = -angle;
 			}
 		}
 
-		affineTransform = new AffineTransform();
-		affineTransform.translate(bounds.getX() - Globals.camera.bounds.getX(), bounds.getY() - Globals.camera.bounds.getY()); // Translate into position
-		affineTransform.translate(bounds.getWidth() / 2, bounds.getHeight() / 2); // Translate to the center of the enemy
-		affineTransform.rotate(angle); // Rotate the enemy
-		affineTransform.translate(-bounds.getWidth() / 2, -bounds.getHeight() / 2); // Translate back to the main position
-
-		canvas2D.drawImage(texture, affineTransform, null);
+		snapshot.addSprite(texture, getPreviousX(), getPreviousY(), bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), angle, true);
 
-		//drawVelocity(canvas2D);
+		//drawVelocity(snapshot);
 	}
 }
@@ -1,94 +1,116 @@
 package net.mcmiracom.inertia;
 
-import java.awt.Graphics2D;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.ArrayList;
 
 /**
  * Represents a single explosion
  * 
+ * Explosions are pooled (get one with Explosion.create), and their frames are advanced by Globals.animations.
+ * 
  * @author Aaron Jacobs
  */
 public class Explosion extends GameObject
 {
 	public static final int SMALL = 0, LARGE = 1;
+	public static final double SECONDS_PER_FRAME = 0.045;
+
+	private static ArrayList<Explosion> pool = new ArrayList<Explosion>(); // Finished explosions, ready to be reused
 
-	protected GameObject host;
+	private long hostHandle; // The object that the explosion is on (followed until it is removed)
+	private Vec2 hostPosition; // Where the host was last seen
 	private Vec2 positionDifference;
-	private int frame, type;
+	private boolean active;
+
+	private Explosion()
+	{
+		super();
+		hostPosition = new Vec2();
+		positionDifference = new Vec2();
+		active = false;
+	}
 
 	/**
-	 * Creates an explosion effect
+	 * Creates an explosion effect (reusing a finished explosion if there is one)
 	 * 
 	 * @param host The object that the explosion is occuring on
 	 * @param initialX The inital x position of the explosion
 	 * @param initialY The initial y position of the explosion
 	 * @param eType The type of the explosion (either SMALL or LARGE)
+	 * @return The explosion
 	 */
-	public Explosion(GameObject host, double initialX, double initialY, int eType)
+	public static Explosion create(PhysObject host, double initialX, double initialY, int eType)
 	{
-		super();
-		allGameObjects.add(this);
-		this.host = host;
-		//TODO
-		frame = 0;
-		this.type = eType;
-		switch(type)
+		Explosion explosion;
+		if(pool.isEmpty())
+		{
+			explosion = new Explosion();
+		}
+		else
+		{
+			explosion = pool.remove(pool.size() - 1);
+		}
+
+		explosion.hostHandle = host.handle;
+		explosion.hostPosition.set(host.position);
+		explosion.positionDifference.set(initialX - host.position.x, initialY - host.position.y);
+		explosion.active = true;
+		allGameObjects.add(explosion);
+
+		switch(eType)
 		{
 		case SMALL:
-			setTexture(Globals.laserExplosion[frame++], true);
+			Globals.animations.start(explosion, Globals.laserExplosion, SECONDS_PER_FRAME);
 			break;
 		case LARGE:
-			setTexture(Globals.explosion[frame++], true);
+			Globals.animations.start(explosion, Globals.explosion, SECONDS_PER_FRAME);
 			break;
 		}
 
-		positionDifference = new Vec2(initialX - host.position.x, initialY - host.position.y);
+		return explosion;
+	}
 
-		final Timer explosionTimer = new Timer();
-		explosionTimer.schedule(new TimerTask()
+	/**
+	 * Removes the explosion from the game, and returns it to the pool (called once its animation is over)
+	 */
+	@Override
+	public void delete()
+	{
+		if(!active)
 		{
-			public void run()
-			{
-				switch(type)
-				{
-				case SMALL:
-					if(frame >= Globals.LASER_EXPLOSION_FRAMECOUNT)
-					{
-						delete();
-						explosionTimer.cancel();
-						return;
-					}
-					setTexture(Globals.laserExplosion[frame++], true);
-					break;
-				case LARGE:
-					if(frame >= Globals.EXPLOSION_FRAMECOUNT)
-					{
-						delete();
-						explosionTimer.cancel();
-						return;
-					}
-					setTexture(Globals.explosion[frame++], true);
-					break;
-				}
-			}
-		}, 0, 45); // 60 fps
+			return;
+		}
+
+		super.delete();
+		active = false;
+		hostHandle = PhysicsState.NO_HANDLE;
+		texture = null;
+		pool.add(this);
 	}
 
 	@Override
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
-		setPosition(host.position.x + positionDifference.x, host.position.y + positionDifference.y);
+		PhysObject host = Globals.physics.resolve(hostHandle);
+		if(host != null)
+		{
+			hostPosition.set(host.position);
+		}
+		setPosition(hostPosition.x + positionDifference.x, hostPosition.y + positionDifference.y);
 
 		// Don't draw if off screen
-		if((position.x - (bounds.getWidth() / 2)) - Globals.camera.bounds.getX() > Globals.panelWidth
-				|| position.x + (bounds.getWidth() / 2) - Globals.camera.bounds.getX() < 0
-				|| position.y - (bounds.getHeight() / 2) - Globals.camera.bounds.getY() > Globals.panelHeight
-				|| position.y + (bounds.getHeight() / 2) - Globals.camera.bounds.getY() < 0)
+		if(!isOnScreen())
 		{
 			return;
 		}
 
-		canvas2D.drawImage(texture, (int)((bounds.getX() - Globals.camera.bounds.getX()) + 0.5), (int)((bounds.getY() - Globals.camera.bounds.getY()) + 0.5), null);
+		// Follow the host's interpolated position
+		double previousX = bounds.getX(), previousY = bounds.getY();
+		if(host != null)
+		{
+			previousX = host.getPreviousX() + (host.bounds.getWidth() / 2) + positionDifference.x - (bounds.getWidth() / 2);
+			previousY = host.getPreviousY() + (host.bounds.getHeight() / 2) + positionDifference.y - (bounds.getHeight() / 2);
+		}
+
+		snapshot.addSprite(texture, previousX, previousY, bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), 0.0, false);
 	}
 }
@@ -1,7 +1,6 @@
 package net.mcmiracom.inertia;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RectangularShape;
 import java.awt.image.BufferedImage;
@@ -63,22 +62,33 @@ public class GameObject
 	}
 
 	/**
-	 * Draws the image, relative to the camera (if on screen)
+	 * Draws the image into the render snapshot (if on screen)
 	 * 
-	 * @param canvas2D The canvas to draw onto
+	 * @param snapshot The snapshot to draw into
 	 */
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
 		// Don't draw if off screen
-		if((position.x - (bounds.getWidth() / 2)) - Globals.camera.bounds.getX() > Globals.panelWidth
-				|| position.x + (bounds.getWidth() / 2) - Globals.camera.bounds.getX() < 0
-				|| position.y - (bounds.getHeight() / 2) - Globals.camera.bounds.getY() > Globals.panelHeight
-				|| position.y + (bounds.getHeight() / 2) - Globals.camera.bounds.getY() < 0)
+		if(!isOnScreen())
 		{
 			return;
 		}
 
-		canvas2D.drawImage(texture, (int)((bounds.getX() - Globals.camera.bounds.getX()) + 0.5), (int)((bounds.getY() - Globals.camera.bounds.getY()) + 0.5), null);
+		snapshot.addSprite(texture, bounds.getX(), bounds.getY(), bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), 0.0, false);
+	}
+
+	/**
+	 * @return If the object is (close enough to being) on screen to be drawn
+	 */
+	protected boolean isOnScreen()
+	{
+		// The frame is drawn part of a step behind the camera, so leave room for objects that are moving onto the screen
+		double margin = Globals.TERMINAL_VEL * Globals.timeStep * 2;
+
+		return !((position.x - (bounds.getWidth() / 2)) - Globals.camera.bounds.getX() > Globals.panelWidth + margin
+				|| position.x + (bounds.getWidth() / 2) - Globals.camera.bounds.getX() < -margin
+				|| position.y - (bounds.getHeight() / 2) - Globals.camera.bounds.getY() > Globals.panelHeight + margin
+				|| position.y + (bounds.getHeight() / 2) - Globals.camera.bounds.getY() < -margin);
 	}
 
 	/**
@@ -97,18 +107,30 @@ public class GameObject
 	 */
 	public boolean circularIntersects(GameObject other, Vec2 newPosition)
 	{
-		return newPosition.distance(other.position) < ((((this.bounds.getWidth() / 2) + (this.bounds.getHeight() / 2)) / 2) + ((other.bounds.getWidth() / 2) + (other.bounds.getHeight() / 2)) / 2);
+		return circularIntersects(other, newPosition.x, newPosition.y);
+	}
+
+	/**
+	 * @param other The object to check for intersection
+	 * @param newX The new x coordinate of the calling object
+	 * @param newY The new y coordinate of the calling object
+	 * @return If the other objects intersects this one
+	 */
+	public boolean circularIntersects(GameObject other, double newX, double newY)
+	{
+		double dx = newX - other.position.x;
+		double dy = newY - other.position.y;
+		return Math.sqrt((dx * dx) + (dy * dy)) < ((((this.bounds.getWidth() / 2) + (this.bounds.getHeight() / 2)) / 2) + ((other.bounds.getWidth() / 2) + (other.bounds.getHeight() / 2)) / 2);
 	}
 
 	/**
 	 * Draws the bounds of this object
 	 * 
-	 * @param canvas2D The canvas to draw onto
+	 * @param snapshot The snapshot to draw into
 	 */
-	public void drawBounds(Graphics2D canvas2D)
+	public void drawBounds(RenderSnapshot snapshot)
 	{
-		canvas2D.setColor(Color.cyan);
-		canvas2D.drawRect((int)(bounds.getX() - Globals.camera.bounds.getX()), (int)(bounds.getY() - Globals.camera.bounds.getY()), (int)bounds.getWidth(), (int)bounds.getHeight());
+		snapshot.addRect(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), Color.cyan);
 	}
 
 	/**
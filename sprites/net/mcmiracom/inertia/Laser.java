@@ -1,33 +1,83 @@
 package net.mcmiracom.inertia;
 
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 
 /**
  * Class representing a single laser
  * 
+ * Lasers are pooled (get one with Laser.create). A deleted laser stays in allLasers (skipped, because it is no longer
+ * active) until removeDeleted() is called at the end of the step, so allLasers can be safely iterated by index.
+ * 
  * @author Aaron Jacobs
  */
 public class Laser extends MovableObject
 {
-	protected static ArrayList<Laser> allLasers = new ArrayList<Laser>();
+	public static final int MAX_LASERS = 1024;
+
+	protected static ArrayList<Laser> allLasers = new ArrayList<Laser>(MAX_LASERS);
+	private static ArrayList<Laser> pool = new ArrayList<Laser>(MAX_LASERS); // Removed lasers, ready to be reused
+	private static int numLasers = 0; // Lasers that have been allocated (in use or in the pool)
 
 	protected double angle;
-	private AffineTransform affineTransform;
-	long startTime;
-	private ControllableObject shooter;
+	protected boolean active;
+	private double age; // Seconds of simulation time since the laser was fired
+	private double previousX, previousY;
+	private long shooterHandle; // So the laser can't hit whoever fired it
 
-	public Laser(ControllableObject shooter, double targetX, double targetY, double angle)
+	private Laser()
 	{
 		super();
-		allLasers.add(this);
 		velocity = new Vec2();
+		active = false;
+	}
 
+	/**
+	 * Fires a laser (reusing a removed laser if there is one)
+	 * 
+	 * @param shooter The object firing the laser
+	 * @param targetX The x coordinate of the target
+	 * @param targetY The y coordinate of the target
+	 * @param angle The angle of the laser
+	 * @return The laser, or null if there are already MAX_LASERS lasers
+	 */
+	public static Laser create(ControllableObject shooter, double targetX, double targetY, double angle)
+	{
+		Laser laser;
+		if(!pool.isEmpty())
+		{
+			laser = pool.remove(pool.size() - 1);
+		}
+		else if(numLasers < MAX_LASERS)
+		{
+			laser = new Laser();
+			++numLasers;
+		}
+		else
+		{
+			return null;
+		}
+
+		laser.fire(shooter, targetX, targetY, angle);
+		allLasers.add(laser);
+
+		return laser;
+	}
+
+	/**
+	 * (Re)initializes the laser
+	 * 
+	 * @param shooter The object firing the laser
+	 * @param targetX The x coordinate of the target
+	 * @param targetY The y coordinate of the target
+	 * @param angle The angle of the laser
+	 */
+	private void fire(ControllableObject shooter, double targetX, double targetY, double angle)
+	{
 		setTexture(Globals.laser, true);
 
-		this.shooter = shooter;
+		shooterHandle = shooter.handle;
 		this.angle = angle;
+		active = true;
 
 		setPosition(shooter.position.x + (40 * Math.cos(angle)), shooter.position.y + (40 * Math.sin(angle)));
 		velocity.x = targetX - shooter.position.x;
@@ -37,7 +87,44 @@ public class Laser extends MovableObject
 		velocity.x += shooter.velocity.x;
 		velocity.y += shooter.velocity.y;
 
-		startTime = System.currentTimeMillis();
+		age = 0.0;
+		previousX = position.x;
+		previousY = position.y;
+	}
+
+	/**
+	 * Removes every deleted laser from allLasers (by moving the last laser into its place), and returns it to the pool
+	 */
+	public static void removeDeleted()
+	{
+		int i = 0;
+		while(i < allLasers.size())
+		{
+			Laser laser = allLasers.get(i);
+			if(laser.active)
+			{
+				++i;
+				continue;
+			}
+
+			int last = allLasers.size() - 1;
+			allLasers.set(i, allLasers.get(last));
+			allLasers.remove(last);
+
+			pool.add(laser);
+		}
+	}
+
+	/**
+	 * Deletes every laser
+	 */
+	public static void clear()
+	{
+		for(int i = 0; i < allLasers.size(); ++i)
+		{
+			allLasers.get(i).delete();
+		}
+		removeDeleted();
 	}
 
 	/**
@@ -46,9 +133,9 @@ public class Laser extends MovableObject
 	 * @param other The target
 	 * @return If the laser landed a hit
 	 */
-	public boolean checkHit(MovableObject other)
+	public boolean checkHit(PhysObject other)
 	{	
-		return ((this.position.distance(other.position) < ((other.bounds.getWidth() / 2) + (other.bounds.getHeight() / 2)) / 2) && other != shooter);
+		return ((this.position.distance(other.position) < ((other.bounds.getWidth() / 2) + (other.bounds.getHeight() / 2)) / 2) && other.handle != shooterHandle);
 	}
 
 	/**
@@ -62,32 +149,43 @@ public class Laser extends MovableObject
 	@Override
 	public void move()
 	{
-		position.addOn(velocity.multiply(Globals.timeStep));
-		if(System.currentTimeMillis() - startTime > Globals.LASER_LIFE_TIME || outOfBounds())
+		previousX = position.x;
+		previousY = position.y;
+		position.multiplyAddOn(velocity, Globals.timeStep);
+		age += Globals.timeStep;
+		if(age * 1000 > Globals.LASER_LIFE_TIME || outOfBounds())
 		{
 			delete();
 			return;
 		}
 
 		Globals.grid.handleLaserCollisions(this);
+		if(!active)
+		{
+			return;
+		}
 
 		bounds.setFrame(position.x - (bounds.getWidth() / 2), position.y - (bounds.getHeight() / 2), bounds.getWidth(), bounds.getHeight());
 	}
 
 	@Override
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
-		affineTransform = new AffineTransform();
-		affineTransform.translate(bounds.getX() - Globals.camera.bounds.getX(), bounds.getY() - Globals.camera.bounds.getY()); // Translate into position
-		affineTransform.translate(bounds.getWidth() / 2, bounds.getHeight() / 2); // Translate to the center of the Player
-		affineTransform.rotate(angle); // Rotate the Player
-		affineTransform.translate(-bounds.getWidth() / 2, -bounds.getHeight() / 2); // Translate back to the main position
-		canvas2D.drawImage(texture, affineTransform, null);
+		// Don't draw if deleted or off screen
+		if(!active || !isOnScreen())
+		{
+			return;
+		}
+
+		snapshot.addSprite(texture, previousX - (bounds.getWidth() / 2), previousY - (bounds.getHeight() / 2), bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), angle, true);
 	}
 
+	/**
+	 * Deletes the laser (it is removed from allLasers at the end of the step)
+	 */
 	@Override
 	public void delete()
 	{
-		allLasers.remove(this);
+		active = false;
 	}
 }
@@ -1,10 +1,7 @@
 package net.mcmiracom.inertia;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 
 /**
  * Object that is affected by physics (acceleration, mass, etc.)
@@ -17,14 +14,15 @@ public class PhysObject extends MovableObject
 			CALLING_ITEM_ABSORBED = 1,
 			OTHER_ITEM_ABSORBED = -1;
 
-	protected static ArrayList<PhysObject> allPhysObjects = new ArrayList<PhysObject>();
-
 	protected Vec2 acceleration;
 	protected double mass;
 	protected double angle;
 	protected boolean thrust;
-	protected AffineTransform affineTransform;
 	protected boolean alive;
+	protected int id; // Index into Globals.physics (changes when dead bodies are compacted away, and is -1 once removed)
+	protected long handle; // Stable reference to this body (see PhysicsState.resolve)
+	protected BufferedImage baseTexture; // The unscaled texture (scaled copies come from Globals.textureCache)
+	protected boolean scaledTexturePending; // If the texture for the current size isn't ready yet
 
 	public PhysObject(double mass)
 	{
@@ -39,88 +37,46 @@ public class PhysObject extends MovableObject
 		angle = 0.0;
 		thrust = false;
 
-		affineTransform = new AffineTransform();
 
 		checkBounds();
 
-		allPhysObjects.add(this);
+		id = Globals.physics.add(this);
 		Globals.grid.place(this);
 	}
 
 	@Override
-	public void move()
+	public void setTexture(BufferedImage texture, boolean changeBounds)
 	{
-		// Prevents items from being placed into non-existent GridNodes
-		checkBounds();
-
-		Globals.grid.place(this);
+		super.setTexture(texture, changeBounds);
 
-		acceleration.x = 0;
-		acceleration.y = 0;
-
-		// Calculate the local attractions (based on our grid position)
-		Vec2 gravitationalAttraction = Globals.grid.calculateAttraction(this);
-
-		acceleration.addOn(gravitationalAttraction);
-
-		if(thrust)
+		if(changeBounds)
 		{
-			handleThrust();
+			baseTexture = texture;
+			scaledTexturePending = false;
 		}
+	}
 
-		// Add acceleration
-		velocity.addOn(acceleration.multiply(Globals.timeStep));
-
-		// Terminal velocity
-		checkTerminalVelocity();
-
-		// Handle collisions
-		handleAllCollisions();
+	@Override
+	public void setPosition(double x, double y)
+	{
+		super.setPosition(x, y);
 
-		// If the object is no longer alive, do not move it
-		if(!alive)
+		// Don't interpolate from wherever we were before
+		if(id >= 0)
 		{
-			return;
+			Globals.physics.snapTo(id, x, y);
 		}
-
-		// Add velocity
-		position.addOn(velocity.multiply(Globals.timeStep));
-
-		checkBounds();
-
-		// Position
-		bounds.setFrame(position.x - (bounds.getWidth() / 2), position.y - (bounds.getHeight() / 2), bounds.getWidth(), bounds.getHeight());
 	}
 
 	/**
-	 * Calculates an attraction vector to the other object
-	 * 
-	 * @param other The object to calculate the vector from
-	 * @return An attraction vector from the other object
+	 * Handles the per-object part of a physics step - collisions are handled once per pair by the Grid, and gravity and
+	 * integration are run over the PhysicsState arrays
 	 */
-	protected Vec2 calculateAttraction(PhysObject other)
+	@Override
+	public void move()
 	{
-		// Force of gravity = (G*m1*m2)/(distance^2)
-		double distanceSquared = (((this.position.x - other.position.x) * (this.position.x - other.position.x)) + ((this.position.y - other.position.y) * (this.position.y - other.position.y)));
-		if(distanceSquared < 100.0)
-		{
-			distanceSquared = 100.0;
-		}
-		double force = (Globals.GRAVITY_ATTRACTION * this.mass * other.mass) / distanceSquared;
-
-		// f = m * a, a = f / m
-		double accelerationMagnitude = force / mass;
-
-		// Generate a vector in the direction of the other object
-		Vec2 attraction = other.position.subtract(this.position);
-
-		// Normalize the vector (so we just get the direction);
-		attraction.selfNormalize();
-
-		// Apply the calculated magnitude
-		attraction.multiplyOn(accelerationMagnitude);
-
-		return attraction;
+		// Prevents items from being placed into non-existent GridNodes
+		checkBounds();
 	}
 
 	protected void handleThrust()
@@ -138,74 +94,48 @@ public class PhysObject extends MovableObject
 	{
 		int returnCode = NO_EVENT;
 
-		// Calculate our new position vector
-		Vec2 newPosition = position.add(velocity.multiply(Globals.timeStep));
+		// Calculate our new position
+		double newX = position.x + (velocity.x * Globals.timeStep);
+		double newY = position.y + (velocity.y * Globals.timeStep);
 
 		// If the new coords cause a collision
-		if(this.circularIntersects(other, newPosition))
+		if(this.circularIntersects(other, newX, newY))
 		{
-			// Generate the new mass, and the new (weighted) position, velocity, and acceleration
 			double newMass = this.mass + other.mass;
-			Vec2 combinedPosition = (this.position.multiply(this.mass).add(other.position.multiply(other.mass))).multiply(1.0 / newMass);
-			Vec2 combinedVelocity = (this.velocity.multiply(this.mass).add(other.velocity.multiply(other.mass))).multiply(1.0 / newMass);
-			Vec2 combinedAcceleration = (this.acceleration.multiply(this.mass).add(other.acceleration.multiply(other.mass))).multiply(1.0 / newMass);
 
 			// Whichever object has the greater mass will absorb the other object
-			if(this.mass > other.mass)
-			{
-				this.position = combinedPosition;
-				this.velocity = combinedVelocity;
-				this.acceleration = combinedAcceleration;
-				this.scale(this.mass, newMass);
-				this.mass = newMass;
-				returnCode = OTHER_ITEM_ABSORBED;
-			}
-			else if(this.mass == other.mass) // If they have equal masses
+			// (if they have equal masses, the calling object absorbs the other - unless the other is a Player)
+			PhysObject absorber = this, absorbed = other;
+			returnCode = OTHER_ITEM_ABSORBED;
+			if(this.mass < other.mass || (this.mass == other.mass && other.getClass() == Player.class))
 			{
-				if(other.getClass() == Player.class) // If the other is a Player, don't let them be absorbed
-				{
-					other.position = combinedPosition;
-					other.velocity = combinedVelocity;
-					other.acceleration = combinedAcceleration;
-					other.scale(other.mass, newMass);
-					other.mass = newMass;
-					returnCode = CALLING_ITEM_ABSORBED;
-				}
-				else
-				{
-					this.position = combinedPosition;
-					this.velocity = combinedVelocity;
-					this.acceleration = combinedAcceleration;
-					this.scale(this.mass, newMass);
-					this.mass = newMass;
-					returnCode = OTHER_ITEM_ABSORBED;
-				}
+				absorber = other;
+				absorbed = this;
+				returnCode = CALLING_ITEM_ABSORBED;
 			}
-			else
+
+			GameEvents.Absorption event = new GameEvents.Absorption();
+			if(event.isEnabled())
 			{
-				other.position = combinedPosition;
-				other.velocity = combinedVelocity;
-				other.acceleration = combinedAcceleration;
-				other.scale(other.mass, newMass);
-				other.mass = newMass;
-				returnCode = CALLING_ITEM_ABSORBED;
+				event.absorberMass = absorber.mass;
+				event.absorbedMass = absorbed.mass;
+				event.absorberIsPlayer = absorber.getClass() == Player.class;
+				event.x = absorbed.position.x;
+				event.y = absorbed.position.y;
+				event.commit();
 			}
+
+			// Generate the new (weighted) position, velocity, and acceleration (in place)
+			Vec2.weightedAverageInto(absorber.position, absorber.position, absorber.mass, absorbed.position, absorbed.mass);
+			Vec2.weightedAverageInto(absorber.velocity, absorber.velocity, absorber.mass, absorbed.velocity, absorbed.mass);
+			Vec2.weightedAverageInto(absorber.acceleration, absorber.acceleration, absorber.mass, absorbed.acceleration, absorbed.mass);
+			absorber.scale(absorber.mass, newMass);
+			absorber.mass = newMass;
 		}
 
 		return returnCode;
 	}
 
-	/**
-	 * Handles all collisions for the calling object
-	 */
-	protected void handleAllCollisions()
-	{
-		checkBounds();
-		// Collisions with movable objects
-
-		Globals.grid.handleBodyCollisions(this);
-	}
-
 	/**
 	 * Keeps the calling object in the bounds of the world
 	 */
@@ -239,26 +169,13 @@ public class PhysObject extends MovableObject
 	}
 
 	/**
-	 * Keeps the calling object from going over terminal velocity
+	 * Called for every ship that comes near the calling ship (whether or not they collide)
+	 * 
+	 * @param other The nearby ship
 	 */
-	protected void checkTerminalVelocity()
+	protected void notice(PhysObject other)
 	{
-		if(velocity.x > Globals.TERMINAL_VEL)
-		{
-			velocity.x = Globals.TERMINAL_VEL;
-		}
-		else if(velocity.x < -Globals.TERMINAL_VEL)
-		{
-			velocity.x = -Globals.TERMINAL_VEL;
-		}
-		if(velocity.y > Globals.TERMINAL_VEL)
-		{
-			velocity.y = Globals.TERMINAL_VEL;
-		}
-		else if(velocity.y < -Globals.TERMINAL_VEL)
-		{
-			velocity.y = -Globals.TERMINAL_VEL;
-		}
+		// Do nothing
 	}
 
 	/**
@@ -271,19 +188,21 @@ public class PhysObject extends MovableObject
 	{
 		int code = -1;
 
-		Vec2 newPosition = position.add(velocity.multiply(Globals.timeStep));
+		double newX = position.x + (velocity.x * Globals.timeStep);
+		double newY = position.y + (velocity.y * Globals.timeStep);
 
 		// If the new coords cause a collision
-		if(this.circularIntersects(other, newPosition))
+		if(this.circularIntersects(other, newX, newY))
 		{
 			code = 1;
-			Vec2 fromOther = this.position.subtract(other.position);
+			double fromOtherX = this.position.x - other.position.x;
+			double fromOtherY = this.position.y - other.position.y;
 			double massRatio = other.mass / this.mass;
 
 			// If they were to our left and heading to the right
 			// or if they were to our right and heading to the left
-			if((fromOther.x > 0 && other.velocity.x > 0)
-					|| (fromOther.x < 0 && other.velocity.x < 0))
+			if((fromOtherX > 0 && other.velocity.x > 0)
+					|| (fromOtherX < 0 && other.velocity.x < 0))
 			{
 				// Add their x velocity to ours
 
@@ -309,8 +228,8 @@ public class PhysObject extends MovableObject
 
 			// If they were above us and heading down
 			// or if they were below us and heading up
-			if((fromOther.y > 0 && other.velocity.y > 0)
-					|| (fromOther.y < 0 && other.velocity.y < 0))
+			if((fromOtherY > 0 && other.velocity.y > 0)
+					|| (fromOtherY < 0 && other.velocity.y < 0))
 			{
 				// Add their x velocity to ours
 
@@ -348,21 +267,44 @@ public class PhysObject extends MovableObject
 	}
 
 	@Override
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
 		// Don't draw if off screen
-		if((position.x - (bounds.getWidth() / 2)) - Globals.camera.bounds.getX() > Globals.panelWidth
-				|| position.x + (bounds.getWidth() / 2) - Globals.camera.bounds.getX() < 0
-				|| position.y - (bounds.getHeight() / 2) - Globals.camera.bounds.getY() > Globals.panelHeight
-				|| position.y + (bounds.getHeight() / 2) - Globals.camera.bounds.getY() < 0)
+		if(!isOnScreen())
 		{
 			return;
 		}
 
-		affineTransform = new AffineTransform();
-		affineTransform.translate(bounds.getX() - Globals.camera.bounds.getX(), bounds.getY() - Globals.camera.bounds.getY()); // Translate into position
+		if(scaledTexturePending)
+		{
+			updateScaledTexture();
+		}
+
+		snapshot.addSprite(texture, getPreviousX(), getPreviousY(), bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), angle, false);
+	}
 
-		canvas2D.drawImage(texture, affineTransform, null);
+	/**
+	 * @return The x coordinate of the (upper left of the) object after the previous physics step
+	 */
+	protected double getPreviousX()
+	{
+		if(id < 0) // Removed (so not moving)
+		{
+			return bounds.getX();
+		}
+		return Globals.physics.previousX[id] - (bounds.getWidth() / 2);
+	}
+
+	/**
+	 * @return The y coordinate of the (upper left of the) object after the previous physics step
+	 */
+	protected double getPreviousY()
+	{
+		if(id < 0) // Removed (so not moving)
+		{
+			return bounds.getY();
+		}
+		return Globals.physics.previousY[id] - (bounds.getHeight() / 2);
 	}
 
 	/**
@@ -373,28 +315,58 @@ public class PhysObject extends MovableObject
 	 */
 	protected void scale(double oldMass, double newMass)
 	{
+		// Anything sleeping nearby will feel the difference
+		if(id >= 0)
+		{
+			Globals.physics.massChanged(id, newMass - oldMass);
+		}
+
 		double scale = Math.log(newMass / oldMass) / 2;
 		if(scale <= -1) // Prevent sizing issues
 		{
 			return;
 		}
 
-		int xScale = (int)((texture.getWidth() * scale) + texture.getWidth());
-		int yScale = (int)((texture.getHeight() * scale) + texture.getHeight());
-
-		BufferedImage bufImage = new BufferedImage(xScale, yScale, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D bufImageGraphics = bufImage.createGraphics();
-		bufImageGraphics.drawImage(texture.getScaledInstance(xScale, yScale, 0), 0, 0, null);
+		int width = (int)bounds.getWidth();
+		int height = (int)bounds.getHeight();
+		int xScale = (int)((width * scale) + width);
+		int yScale = (int)((height * scale) + height);
 
-		int widthDifference = xScale - texture.getWidth();
-		int heightDifferece = yScale - texture.getHeight();
+		int widthDifference = xScale - width;
+		int heightDifferece = yScale - height;
 
 		position.x -= widthDifference / 2;
 		position.y -= heightDifferece / 2;
 
 		bounds.setFrame(position.x - (xScale / 2), position.y - (yScale / 2), xScale, yScale);
 
-		texture = bufImage;
+		GameEvents.Scale event = new GameEvents.Scale();
+		event.begin();
+		updateScaledTexture();
+		event.end();
+		if(event.shouldCommit())
+		{
+			event.oldMass = oldMass;
+			event.newMass = newMass;
+			event.width = xScale;
+			event.height = yScale;
+			event.textureReady = !scaledTexturePending;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Switches to the cached copy of the base texture for the current size (if it isn't ready yet, the current texture is
+	 * stretched to the bounds until it is)
+	 */
+	protected void updateScaledTexture()
+	{
+		BufferedImage scaledTexture = Globals.textureCache.get(baseTexture, (int)bounds.getWidth(), (int)bounds.getHeight());
+		scaledTexturePending = (scaledTexture == null);
+		if(scaledTexture != null)
+		{
+			texture = scaledTexture;
+		}
 	}
 
 	/**
@@ -420,12 +392,11 @@ public class PhysObject extends MovableObject
 	/**
 	 * Drwas the velocity vector of the calling object
 	 * 
-	 * @param canvas2D The canvas to draw on
+	 * @param snapshot The snapshot to draw into
 	 */
-	protected void drawVelocity(Graphics2D canvas2D)
+	protected void drawVelocity(RenderSnapshot snapshot)
 	{
-		canvas2D.setColor(Color.white);
-		canvas2D.drawLine((int)(position.x - Globals.camera.bounds.getX()), (int)(position.y - Globals.camera.bounds.getY()), (int)(position.x - Globals.camera.bounds.getX() + velocity.x), (int)(position.y - Globals.camera.bounds.getY() + velocity.y));
+		snapshot.addLine(position.x, position.y, position.x + velocity.x, position.y + velocity.y, Color.white);
 	}
 
 	/**
@@ -438,7 +409,11 @@ public class PhysObject extends MovableObject
 
 	public void delete()
 	{
-		new Explosion(this, position.x, position.y, Explosion.LARGE);
+		Explosion.create(this, position.x, position.y, Explosion.LARGE);
+		if(alive && id >= 0)
+		{
+			Globals.physics.massChanged(id, -mass);
+		}
 		alive = false;
 	}
 }
@@ -1,14 +1,8 @@
 package net.mcmiracom.inertia;
 
-import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
-import javax.swing.JOptionPane;
 
 /**
  * Player class
@@ -18,7 +12,9 @@ import javax.swing.JOptionPane;
 public class Player extends ControllableObject
 {
 	private double mouseX, mouseY;
-	private BufferedImage thrustTexture, normalTexture;
+	private Vec2 toMouse; // Reused every step (to avoid garbage)
+	private BufferedImage thrustTexture, normalTexture; // At the current size
+	private BufferedImage baseThrustTexture, baseNormalTexture;
 	protected static int maxHealth = Globals.DEFAULT_HEALTH;
 
 	public Player(double mass, int health)
@@ -27,91 +23,61 @@ public class Player extends ControllableObject
 
 		mouseX = 0.0;
 		mouseY = 0.0;
+		toMouse = new Vec2();
 
-		try
-		{
-			normalTexture = ImageIO.read(GamePanel.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "ship.png"));
-		}
-		catch (IOException e)
-		{
-			normalTexture = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB); // Prevent null pointer
-			JOptionPane.showMessageDialog(null, e.getMessage(), "Error Loading Player Texture", JOptionPane.ERROR_MESSAGE);
-		}
-
-		try
-		{
-			thrustTexture = ImageIO.read(GamePanel.class.getClassLoader().getResource(Globals.TEXTURE_FOLDER + "ship_thrust.png"));
-		}
-		catch (IOException e)
-		{
-			thrustTexture = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB); // Prevent null pointer
-			JOptionPane.showMessageDialog(null, e.getMessage(), "Error Loading Player Texture", JOptionPane.ERROR_MESSAGE);
-		}
+		baseNormalTexture = normalTexture = Globals.textures.load("ship.png");
+		baseThrustTexture = thrustTexture = Globals.textures.load("ship_thrust.png");
 	}
 
 	@Override
-	public void draw(Graphics2D canvas2D)
+	public void draw(RenderSnapshot snapshot)
 	{
 		double adjustedMouseX = mouseX + Globals.camera.bounds.getX();
 		double adjustedMouseY = mouseY + Globals.camera.bounds.getY();
-		Vec2 mouse = new Vec2(adjustedMouseX, adjustedMouseY);
-		Vec2 toMouse = mouse.subtract(position);
+		toMouse.set(adjustedMouseX - position.x, adjustedMouseY - position.y);
 		toMouse.selfNormalize();
 
-		Vec2 right = new Vec2(1.0, 0.0);
-		angle = Math.acos(toMouse.dot(right));
+		angle = Math.acos(toMouse.dot(Globals.right));
 		if(position.y > adjustedMouseY)
 		{
 			angle = -angle;
 		}
 
-		affineTransform = new AffineTransform();
-		affineTransform.translate(bounds.getX() - Globals.camera.bounds.getX(), bounds.getY() - Globals.camera.bounds.getY()); // Translate into position
-		affineTransform.translate(bounds.getWidth() / 2, bounds.getHeight() / 2); // Translate to the center of the Player
-		affineTransform.rotate(angle); // Rotate the Player
-		affineTransform.translate(-bounds.getWidth() / 2, -bounds.getHeight() / 2); // Translate back to the main position
-		canvas2D.drawImage(texture, affineTransform, null);
+		if(scaledTexturePending)
+		{
+			updateScaledTexture();
+		}
+
+		snapshot.addSprite(texture, getPreviousX(), getPreviousY(), bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), angle, true);
 
-		//drawVelocity(canvas2D);
+		//drawVelocity(snapshot);
 	}
 
 	@Override
-	protected void scale(double oldMass, double newMass)
+	protected void updateScaledTexture()
 	{
-		double scale = Math.log(newMass / oldMass) / 2;
-		int xScale = (int)((texture.getWidth() * scale) + texture.getWidth());
-		int yScale = (int)((texture.getHeight() * scale) + texture.getHeight());
-
-		BufferedImage scaledImage = new BufferedImage(xScale, yScale, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D bufImageGraphics = scaledImage.createGraphics();
-		bufImageGraphics.drawImage(texture.getScaledInstance(xScale, yScale, 0), 0, 0, null);
+		int width = (int)bounds.getWidth();
+		int height = (int)bounds.getHeight();
 
-		int widthDifference = xScale - texture.getWidth();
-		int heightDifferece = yScale - texture.getHeight();
-
-		position.x -= widthDifference / 2;
-		position.y -= heightDifferece / 2;
-
-		bounds.setFrame(position.x - (xScale / 2), position.y - (yScale / 2), xScale, yScale);
-
-		texture = scaledImage;
-
-		BufferedImage scaledThrust = new BufferedImage(xScale, yScale, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D scaledThrustGraphics = scaledThrust.createGraphics();
-		scaledThrustGraphics.drawImage(thrustTexture.getScaledInstance(xScale, yScale, 0), 0, 0, null);
-		thrustTexture = scaledThrust;
+		BufferedImage scaledNormal = Globals.textureCache.get(baseNormalTexture, width, height);
+		BufferedImage scaledThrust = Globals.textureCache.get(baseThrustTexture, width, height);
+		scaledTexturePending = (scaledNormal == null || scaledThrust == null);
+		if(scaledNormal != null)
+		{
+			normalTexture = scaledNormal;
+		}
+		if(scaledThrust != null)
+		{
+			thrustTexture = scaledThrust;
+		}
 
-		BufferedImage scaledNormal = new BufferedImage(xScale, yScale, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D scaledNormalGraphics = scaledNormal.createGraphics();
-		scaledNormalGraphics.drawImage(normalTexture.getScaledInstance(xScale, yScale, 0), 0, 0, null);
-		normalTexture = scaledNormal;
+		texture = thrust ? thrustTexture : normalTexture;
 	}
 
 	@Override
 	protected void handleThrust()
 	{
-		Vec2 mouse = new Vec2(mouseX + Globals.camera.bounds.getX(), mouseY + Globals.camera.bounds.getY());
-		Vec2 toMouse = mouse.subtract(position);
+		toMouse.set(mouseX + Globals.camera.bounds.getX() - position.x, mouseY + Globals.camera.bounds.getY() - position.y);
 		toMouse.selfNormalize();
 		toMouse.multiplyOn(Globals.THRUST_FORCE);
 
@@ -127,14 +93,6 @@ public class Player extends ControllableObject
 		acceleration.addOn(toMouse);
 	}
 
-	@Override
-	protected void handleAllCollisions()
-	{
-		checkBounds();
-
-		Globals.grid.handlePhysicsCollisions(this);
-	}
-
 	/**
 	 * Handles keyboard input for the player object
 	 * 
@@ -230,7 +188,7 @@ public class Player extends ControllableObject
 		{
 			alive = false;
 			Globals.gameOver = true;
-			new Explosion(this, position.x, position.y, Explosion.LARGE);
+			Explosion.create(this, position.x, position.y, Explosion.LARGE);
 		}
 	}
 }
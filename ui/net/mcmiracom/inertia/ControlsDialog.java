@@ -47,7 +47,7 @@ public class ControlsDialog extends JDialog implements WindowListener {
 			contentPanel.add(label, BorderLayout.NORTH);
 		}
 		{
-			JLabel label = new JLabel("<html><font size='7'>Mouse: </font><font size='5'>Rotates the player's ship</font>\r\n<br><font size='7'>Left Mouse Button: </font><font size='5'>Fires lasers</font>\r\n<br><font size='7'>Spacebar: </font><font size='5'>Activates ship's thrusters</font>\r\n<br><font size='7'>D: </font><font size='5'>Toggles the display of debug lines</font></html>");
+			JLabel label = new JLabel("<html><font size='7'>Mouse: </font><font size='5'>Rotates the player's ship</font>\r\n<br><font size='7'>Left Mouse Button: </font><font size='5'>Fires lasers</font>\r\n<br><font size='7'>Spacebar: </font><font size='5'>Activates ship's thrusters</font>\r\n<br><font size='7'>D: </font><font size='5'>Toggles the display of debug lines</font>\r\n<br><font size='7'>P: </font><font size='5'>Toggles the profiler</font></html>");
 			contentPanel.add(label, BorderLayout.CENTER);
 		}
 		{
@@ -9,6 +9,7 @@ import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.SwingConstants;
 import javax.swing.JList;
@@ -180,6 +181,36 @@ public class LauncherWindow extends JFrame {
 		qualityGroup.add(rdbtnHigh);
 		qualityGroup.add(rdbtnMedium_1);
 		qualityGroup.add(rdbtnLow);
+
+		final JCheckBox chckbxWholeWorldGravity = new JCheckBox("Whole-World Gravity");
+		chckbxWholeWorldGravity.setSelected(Globals.barnesHut);
+		chckbxWholeWorldGravity.setToolTipText("Approximates gravity from every meteoroid in the world, instead of just nearby ones");
+		qualityRadioButtonPanel.add(chckbxWholeWorldGravity);
+
+		final JCheckBox chckbxMultithreadedPhysics = new JCheckBox("Multithreaded Physics");
+		chckbxMultithreadedPhysics.setSelected(Globals.parallelPhysics);
+		chckbxMultithreadedPhysics.setToolTipText("Splits the physics calculations between all of your processor's cores");
+		qualityRadioButtonPanel.add(chckbxMultithreadedPhysics);
+
+		final JCheckBox chckbxFullGridNeighborhood = new JCheckBox("Full Grid Neighborhood");
+		chckbxFullGridNeighborhood.setSelected(Globals.fullGridNeighborhood);
+		chckbxFullGridNeighborhood.setToolTipText("Includes every surrounding grid square in the physics calculations, instead of just the closest three");
+		qualityRadioButtonPanel.add(chckbxFullGridNeighborhood);
+
+		final JCheckBox chckbxSleepingBodies = new JCheckBox("Sleeping Bodies");
+		chckbxSleepingBodies.setSelected(Globals.sleepingBodies);
+		chckbxSleepingBodies.setToolTipText("Stops simulating meteoroids that have come to rest, until something disturbs them");
+		qualityRadioButtonPanel.add(chckbxSleepingBodies);
+
+		final JCheckBox chckbxActiveRendering = new JCheckBox("Active Rendering");
+		chckbxActiveRendering.setSelected(Globals.activeRendering);
+		chckbxActiveRendering.setToolTipText("Draws every frame straight to the screen with page flipping, instead of through Swing");
+		qualityRadioButtonPanel.add(chckbxActiveRendering);
+
+		final JCheckBox chckbxFullScreen = new JCheckBox("Full Screen");
+		chckbxFullScreen.setSelected(Globals.fullScreen);
+		chckbxFullScreen.setToolTipText("Takes over the whole screen (with active rendering)");
+		qualityRadioButtonPanel.add(chckbxFullScreen);
 		rdbtnMedium_1.setSelected(true); // Make medium default
 
 		JPanel buttonPanel = new JPanel();
@@ -215,15 +246,24 @@ public class LauncherWindow extends JFrame {
 				if(rdbtnHigh.isSelected())
 				{
 					Globals.gridQuality = Globals.HIGH_QUALITY;
+					Globals.spriteAngles = 128;
 				}
 				else if(rdbtnMedium_1.isSelected())
 				{
 					Globals.gridQuality = Globals.MEDIUM_QUALITY;
+					Globals.spriteAngles = 64;
 				}
 				else if(rdbtnLow.isSelected())
 				{
 					Globals.gridQuality = Globals.LOW_QUALITY;
+					Globals.spriteAngles = 32;
 				}
+				Globals.barnesHut = chckbxWholeWorldGravity.isSelected();
+				Globals.parallelPhysics = chckbxMultithreadedPhysics.isSelected();
+				Globals.fullGridNeighborhood = chckbxFullGridNeighborhood.isSelected();
+				Globals.sleepingBodies = chckbxSleepingBodies.isSelected();
+				Globals.fullScreen = chckbxFullScreen.isSelected();
+				Globals.activeRendering = chckbxActiveRendering.isSelected() || Globals.fullScreen;
 
 				EventQueue.invokeLater(new Runnable(){
 					public void run()
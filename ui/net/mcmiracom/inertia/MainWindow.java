@@ -3,12 +3,16 @@ package net.mcmiracom.inertia;
 import javax.swing.JFrame;
 
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.EventQueue;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
 import java.util.Timer;
 import java.util.TimerTask;
 import javax.swing.JMenuBar;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 
@@ -21,6 +25,7 @@ public class MainWindow {
 
 	private JFrame frmInertia;
 	private boolean musicEnabled = true;
+	private GraphicsDevice fullScreenDevice = null; // Only set in full-screen exclusive mode
 
 	/**
 	 * Create the application.
@@ -39,6 +44,17 @@ public class MainWindow {
 		frmInertia.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		Globals.setWindowIcon(frmInertia);
 
+		if(Globals.activeRendering)
+		{
+			// Lightweight menus would be drawn underneath the game's canvas
+			JPopupMenu.setDefaultLightWeightPopupEnabled(false);
+		}
+
+		if(Globals.fullScreen)
+		{
+			setUpFullScreen();
+		}
+
 		final GamePanel graphicsPanel = new GamePanel();
 		graphicsPanel.setPreferredSize(new Dimension(Globals.panelWidth, Globals.panelHeight));
 		frmInertia.getContentPane().add(graphicsPanel);
@@ -132,11 +148,85 @@ public class MainWindow {
 					public void run()
 					{
 						frmInertia.pack();
-						frmInertia.setLocationRelativeTo(null);
-						frmInertia.setVisible(true);
+						if(fullScreenDevice != null)
+						{
+							enterFullScreen();
+						}
+						else
+						{
+							frmInertia.setLocationRelativeTo(null);
+							frmInertia.setVisible(true);
+						}
+						graphicsPanel.requestGameFocus();
 					}
 				});
 			}
 		}, 300);
 	}
+
+	/**
+	 * Checks for full-screen exclusive mode (if the screen has no mode at the game's resolution, the game uses the screen's
+	 * resolution instead)
+	 */
+	private void setUpFullScreen()
+	{
+		GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+		if(!device.isFullScreenSupported())
+		{
+			return; // Stay in a window
+		}
+
+		fullScreenDevice = device;
+		frmInertia.setUndecorated(true);
+		if(findDisplayMode() == null)
+		{
+			DisplayMode current = device.getDisplayMode();
+			Globals.panelWidth = current.getWidth();
+			Globals.panelHeight = current.getHeight();
+		}
+	}
+
+	/**
+	 * Takes over the screen (and switches its resolution, if needed)
+	 */
+	private void enterFullScreen()
+	{
+		fullScreenDevice.setFullScreenWindow(frmInertia);
+
+		DisplayMode mode = findDisplayMode();
+		if(mode != null && !mode.equals(fullScreenDevice.getDisplayMode()) && fullScreenDevice.isDisplayChangeSupported())
+		{
+			fullScreenDevice.setDisplayMode(mode);
+		}
+		frmInertia.validate();
+	}
+
+	/**
+	 * @return A display mode at the game's resolution (preferring the current bit depth and refresh rate), or null if the
+	 *         screen doesn't have one
+	 */
+	private DisplayMode findDisplayMode()
+	{
+		DisplayMode current = fullScreenDevice.getDisplayMode();
+		if(current.getWidth() == Globals.panelWidth && current.getHeight() == Globals.panelHeight)
+		{
+			return current;
+		}
+		DisplayMode best = null;
+		DisplayMode[] modes = fullScreenDevice.getDisplayModes();
+		for(int i = 0; i < modes.length; ++i)
+		{
+			DisplayMode mode = modes[i];
+			if(mode.getWidth() != Globals.panelWidth || mode.getHeight() != Globals.panelHeight)
+			{
+				continue;
+			}
+			if(best == null || (mode.getBitDepth() == current.getBitDepth() && mode.getRefreshRate() == current.getRefreshRate()))
+			{
+				best = mode;
+			}
+		}
+
+		return best;
+	}
 }
@@ -8,6 +8,7 @@ import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.SwingConstants;
@@ -117,6 +118,26 @@ public class ResetWindow extends JDialog implements WindowListener {
 		qualityGroup.add(rdbtnHigh);
 		qualityGroup.add(rdbtnMedium_1);
 		qualityGroup.add(rdbtnLow);
+
+		final JCheckBox chckbxWholeWorldGravity = new JCheckBox("Whole-World Gravity");
+		chckbxWholeWorldGravity.setSelected(Globals.barnesHut);
+		chckbxWholeWorldGravity.setToolTipText("Approximates gravity from every meteoroid in the world, instead of just nearby ones");
+		qualityRadioButtonPanel.add(chckbxWholeWorldGravity);
+
+		final JCheckBox chckbxMultithreadedPhysics = new JCheckBox("Multithreaded Physics");
+		chckbxMultithreadedPhysics.setSelected(Globals.parallelPhysics);
+		chckbxMultithreadedPhysics.setToolTipText("Splits the physics calculations between all of your processor's cores");
+		qualityRadioButtonPanel.add(chckbxMultithreadedPhysics);
+
+		final JCheckBox chckbxFullGridNeighborhood = new JCheckBox("Full Grid Neighborhood");
+		chckbxFullGridNeighborhood.setSelected(Globals.fullGridNeighborhood);
+		chckbxFullGridNeighborhood.setToolTipText("Includes every surrounding grid square in the physics calculations, instead of just the closest three");
+		qualityRadioButtonPanel.add(chckbxFullGridNeighborhood);
+
+		final JCheckBox chckbxSleepingBodies = new JCheckBox("Sleeping Bodies");
+		chckbxSleepingBodies.setSelected(Globals.sleepingBodies);
+		chckbxSleepingBodies.setToolTipText("Stops simulating meteoroids that have come to rest, until something disturbs them");
+		qualityRadioButtonPanel.add(chckbxSleepingBodies);
 		rdbtnMedium_1.setSelected(true); // Make medium default
 
 		JPanel buttonPanel = new JPanel();
@@ -148,15 +169,22 @@ public class ResetWindow extends JDialog implements WindowListener {
 				if(rdbtnHigh.isSelected())
 				{
 					Globals.gridQuality = Globals.HIGH_QUALITY;
+					Globals.spriteAngles = 128;
 				}
 				else if(rdbtnMedium_1.isSelected())
 				{
 					Globals.gridQuality = Globals.MEDIUM_QUALITY;
+					Globals.spriteAngles = 64;
 				}
 				else if(rdbtnLow.isSelected())
 				{
 					Globals.gridQuality = Globals.LOW_QUALITY;
+					Globals.spriteAngles = 32;
 				}
+				Globals.barnesHut = chckbxWholeWorldGravity.isSelected();
+				Globals.parallelPhysics = chckbxMultithreadedPhysics.isSelected();
+				Globals.fullGridNeighborhood = chckbxFullGridNeighborhood.isSelected();
+				Globals.sleepingBodies = chckbxSleepingBodies.isSelected();
 
 				EventQueue.invokeLater(new Runnable(){
 					public void run()
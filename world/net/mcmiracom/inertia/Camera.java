@@ -29,31 +29,42 @@ public class Camera
 	 * @param worldBounds The bounds to stay inside of
 	 */
 	public void centerOn(Rectangle2D targetBounds, Rectangle2D worldBounds)
+	{
+		centerOn(targetBounds.getCenterX(), targetBounds.getCenterY(), worldBounds);
+	}
+
+	/**
+	 * Centers the camera on the target point, keeping it inside of the worldBounds
+	 * 
+	 * @param targetX The x coordinate to center on
+	 * @param targetY The y coordinate to center on
+	 * @param worldBounds The bounds to stay inside of
+	 */
+	public void centerOn(double targetX, double targetY, Rectangle2D worldBounds)
 	{
 		// Set our position to be centered on the target
-		Vec2 position = new Vec2();
-		position.x = targetBounds.getCenterX() - (bounds.getWidth() / 2);
-		position.y = targetBounds.getCenterY() - (bounds.getHeight() / 2);
+		double x = targetX - (bounds.getWidth() / 2);
+		double y = targetY - (bounds.getHeight() / 2);
 
 		// Stay within the bounds of the world
-		if(position.x < 0)
+		if(x < 0)
 		{
-			position.x = 0;
+			x = 0;
 		}
-		if(position.x + bounds.getWidth() > worldBounds.getX() + worldBounds.getWidth())
+		if(x + bounds.getWidth() > worldBounds.getX() + worldBounds.getWidth())
 		{
-			position.x = worldBounds.getX() + worldBounds.getWidth() - bounds.getWidth();
+			x = worldBounds.getX() + worldBounds.getWidth() - bounds.getWidth();
 		}
-		if(position.y < 0)
+		if(y < 0)
 		{
-			position.y = 0;
+			y = 0;
 		}
-		if(position.y + bounds.getHeight() > worldBounds.getY() + worldBounds.getHeight())
+		if(y + bounds.getHeight() > worldBounds.getY() + worldBounds.getHeight())
 		{
-			position.y = worldBounds.getY() + worldBounds.getHeight() - bounds.getHeight();
+			y = worldBounds.getY() + worldBounds.getHeight() - bounds.getHeight();
 		}
 
 		// Set the bounds
-		bounds.setFrame(position.x, position.y, bounds.getWidth(), bounds.getHeight());
+		bounds.setFrame(x, y, bounds.getWidth(), bounds.getHeight());
 	}
 }
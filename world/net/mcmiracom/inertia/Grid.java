@@ -1,23 +1,51 @@
 package net.mcmiracom.inertia;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * Grid class used to limit the number of physics calculations performed
  * 
+ * The GridNodes are packed into a single array of body ids (sorted by GridNode), which is rebuilt with a counting sort
+ * after every physics step. The ids in GridNode n are cellItems[cellStart[n]] up to (but not including)
+ * cellItems[cellStart[n + 1]]. Removed bodies are left in place until the next rebuild, and are skipped because they are
+ * no longer alive.
+ * 
+ * cellAwake counts the living bodies in each GridNode that aren't asleep (see PhysicsState), so that GridNodes where
+ * everything is asleep can be skipped.
+ * 
  * @author Aaron Jacobs
  */
 public class Grid
 {
-	protected GridNode[] gridNodes;
+	protected int numGridNodes;
+	protected int[] cellStart, cellItems;
+	protected int[] cellAwake; // The number of awake bodies in each GridNode (kept up to date as bodies sleep and wake)
+	private int[] cellCursor; // Only used while rebuilding
+	private PhysicsState state; // The state that the ids belong to
+	private boolean dirty; // If a body has been placed since the last rebuild
 	private int gridSize, numXGridNodes, numYGridNodes;
 
 	private static final int NONE = 0, LEFT = 1, RIGHT = 2, TOP = 4, BOTTOM = 8;
 
+	// Nearby GridNode queries
+	public static final int MAX_NEARBY_GRID_NODES = 9;
+	private int[] neighborTable; // The (up to 9) GridNodes around each GridNode, with the edges of the world already left out
+	private int[] neighborCounts;
+	private int[] nearbyNodes; // Only used by queries on the simulation thread
+
+	// Pair iteration (the GridNodes to the right, below left, below, and below right of each GridNode)
+	private static final int MAX_HALF_NEIGHBORS = 4;
+	private int[] halfNeighborTable;
+	private int[] halfNeighborCounts;
+	private static final ThreadLocal<int[]> threadNearbyNodes = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue()
+		{
+			return new int[MAX_NEARBY_GRID_NODES];
+		}
+	};
+
 	/**
 	 * @param worldWidth The width of the world
 	 * @param worldHeight The height of the world
@@ -41,46 +69,124 @@ public class Grid
 			++numYGridNodes;
 		}
 
-		gridNodes = new GridNode[numXGridNodes * numYGridNodes];
-		for(int i = 0; i < gridNodes.length; ++i)
+		numGridNodes = numXGridNodes * numYGridNodes;
+		cellStart = new int[numGridNodes + 1];
+		cellCursor = new int[numGridNodes];
+		cellAwake = new int[numGridNodes];
+		cellItems = new int[0];
+		dirty = false;
+
+		// Precompute the full neighborhood of every GridNode
+		nearbyNodes = new int[MAX_NEARBY_GRID_NODES];
+		neighborTable = new int[numGridNodes * MAX_NEARBY_GRID_NODES];
+		neighborCounts = new int[numGridNodes];
+		halfNeighborTable = new int[numGridNodes * MAX_HALF_NEIGHBORS];
+		halfNeighborCounts = new int[numGridNodes];
+		for(int node = 0; node < numGridNodes; ++node)
 		{
-			gridNodes[i] = new GridNode();
+			int column = node % numXGridNodes;
+			int row = node / numXGridNodes;
+			int count = 0, halfCount = 0;
+
+			for(int y = row - 1; y <= row + 1; ++y)
+			{
+				for(int x = column - 1; x <= column + 1; ++x)
+				{
+					if(x >= 0 && x < numXGridNodes && y >= 0 && y < numYGridNodes)
+					{
+						neighborTable[(node * MAX_NEARBY_GRID_NODES) + count++] = x + (y * numXGridNodes);
+
+						// Everything after this GridNode (in row order) is in the forward half
+						if(y > row || (y == row && x > column))
+						{
+							halfNeighborTable[(node * MAX_HALF_NEIGHBORS) + halfCount++] = x + (y * numXGridNodes);
+						}
+					}
+				}
+			}
+			neighborCounts[node] = count;
+			halfNeighborCounts[node] = halfCount;
 		}
 	}
 
 	/**
-	 * Places the item into the correct GridNode
+	 * Places a new item into the grid (it will show up in the GridNodes after the next rebuild)
 	 * 
 	 * @param item The item to be placed
 	 */
 	public void place(MovableObject item)
 	{
-		// Determine which GrideNode the MovableObject's position is in
-		int newGridNodeNum = findGridNode(item.position.x, item.position.y);
-
-		// If the MovableObject is already in that GridNode, return
-		if(newGridNodeNum == item.gridNodeNum)
-		{
-			return;
-		}
-		else // Otherwise remove the MovableObject from the previous GridNode, and place it in the correct one
-		{
-			gridNodes[item.gridNodeNum].items.remove(item);
-
-			gridNodes[newGridNodeNum].items.add(item);
-			item.gridNodeNum = newGridNodeNum;
-		}
+		item.gridNodeNum = findGridNode(item.position.x, item.position.y);
+		dirty = true;
 	}
 
 	/**
 	 * Removes the item from its associated GridNode
 	 * 
-	 * @param item MovableObjecthe item to be removed
+	 * @param item The item to be removed
 	 */
 	public void remove(MovableObject item)
-	{	
-		// Remove its reference
-		gridNodes[item.gridNodeNum].items.remove(item);
+	{
+		// Nothing to do - dead items are skipped, and dropped at the next rebuild
+	}
+
+	/**
+	 * @return If items have been placed since the last rebuild
+	 */
+	public boolean needsRebuild()
+	{
+		return dirty;
+	}
+
+	/**
+	 * Re-sorts every living body into its GridNode (counting sort on the GridNode numbers)
+	 * 
+	 * @param state The state holding the bodies
+	 */
+	public void rebuild(PhysicsState state)
+	{
+		this.state = state;
+		int count = state.size();
+		if(cellItems.length < count)
+		{
+			cellItems = new int[count * 2];
+		}
+
+		// Count the bodies in each GridNode
+		Arrays.fill(cellStart, 0);
+		Arrays.fill(cellAwake, 0);
+		for(int id = 0; id < count; ++id)
+		{
+			PhysObject body = state.bodies[id];
+			if(body.alive)
+			{
+				body.gridNodeNum = findGridNode(body.position.x, body.position.y);
+				++cellStart[body.gridNodeNum + 1];
+				if(!state.sleeping[id])
+				{
+					++cellAwake[body.gridNodeNum];
+				}
+			}
+		}
+
+		// Turn the counts into offsets
+		for(int i = 0; i < numGridNodes; ++i)
+		{
+			cellStart[i + 1] += cellStart[i];
+		}
+
+		// Fill in the ids
+		System.arraycopy(cellStart, 0, cellCursor, 0, numGridNodes);
+		for(int id = 0; id < count; ++id)
+		{
+			PhysObject body = state.bodies[id];
+			if(body.alive)
+			{
+				cellItems[cellCursor[body.gridNodeNum]++] = id;
+			}
+		}
+
+		dirty = false;
 	}
 
 	/**
@@ -95,115 +201,132 @@ public class Grid
 		int xGridNodeNum = (int)(x + 0.5) / gridSize;
 		int yGridNodeNum = (int)(y + 0.5) / gridSize;
 
+		// Items can be just outside of the world until their next bounds check (e.g. after a texture change re-centers them)
+		if(xGridNodeNum < 0)
+		{
+			xGridNodeNum = 0;
+		}
+		else if(xGridNodeNum >= numXGridNodes)
+		{
+			xGridNodeNum = numXGridNodes - 1;
+		}
+		if(yGridNodeNum < 0)
+		{
+			yGridNodeNum = 0;
+		}
+		else if(yGridNodeNum >= numYGridNodes)
+		{
+			yGridNodeNum = numYGridNodes - 1;
+		}
+
 		return xGridNodeNum + (yGridNodeNum * numXGridNodes);
 	}
 
 	/**
-	 * Calculates all attraction vectors for the supplied object (relative to the grid-space)
+	 * Adds all attractions (relative to the grid-space) to the body's acceleration
 	 * 
-	 * @param item The item who's attraction vectors are to be calculated
-	 * @return The overall attraction vector
+	 * @param state The state holding the body
+	 * @param id The id of the body who's attractions are to be calculated
 	 */
-	public Vec2 calculateAttraction(PhysObject item)
+	public void calculateAttraction(PhysicsState state, int id)
 	{
-		Vec2 attraction = new Vec2();
-		MovableObject otherItem;
-
-		ArrayList<Integer> nodes = findNearbyGridNodes(item.position.x, item.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		int[] nodes = threadNearbyNodes.get(); // Gravity can run on several threads
+		int numNodes = findNearbyGridNodes(state.x[id], state.y[id], nodes);
+		for(int i = 0; i < numNodes; ++i)
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int node = nodes[i];
+			for(int j = cellStart[node]; j < cellStart[node + 1]; ++j)
 			{
-				otherItem = itemIterator.next();
-				if(otherItem != item && otherItem instanceof PhysObject)
+				int otherId = cellItems[j];
+				if(otherId != id && state.active[otherId])
 				{
-					attraction.addOn(item.calculateAttraction((PhysObject) otherItem));
+					state.addAttraction(id, state.x[otherId], state.y[otherId], state.mass[otherId]);
 				}
 			}
 		}
-
-		return attraction;
 	}
 
 	/**
 	 * Draws all attraction vectors for the supplied object (relative to the grid-space)
 	 * 
 	 * @param item The item who's attraction vectors are to be drawn
-	 * @param canvas2D The canvas to draw on
+	 * @param snapshot The snapshot to draw into
 	 */
-	public void drawVisualAttraction(MovableObject item, Graphics2D canvas2D)
+	public void drawVisualAttraction(MovableObject item, RenderSnapshot snapshot)
 	{
 		MovableObject otherItem;
 
-		ArrayList<Integer> nodes = findNearbyGridNodes(item.position.x, item.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		int numNodes = findNearbyGridNodes(item.position.x, item.position.y, nearbyNodes);
+		for(int i = 0; i < numNodes; ++i)
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int node = nearbyNodes[i];
+			for(int j = cellStart[node]; j < cellStart[node + 1]; ++j)
 			{
-				otherItem = itemIterator.next();
-				if(otherItem != item)
+				otherItem = state.bodies[cellItems[j]];
+				if(otherItem != item && ((PhysObject)otherItem).alive)
 				{
 					double dist = item.position.distance(otherItem.position);
+					Color color;
 					if(dist < 300)
 					{
-						canvas2D.setColor(Color.red);
+						color = Color.red;
 					}
 					else if(dist < 700)
 					{
-						canvas2D.setColor(Color.yellow);
+						color = Color.yellow;
 					}
 					else
 					{
-						canvas2D.setColor(Color.green);
+						color = Color.green;
 					}
-					canvas2D.drawLine((int)(item.position.x - Globals.camera.bounds.getX()), (int)(item.position.y - Globals.camera.bounds.getY()), (int)(otherItem.position.x - Globals.camera.bounds.getX()), (int)(otherItem.position.y - Globals.camera.bounds.getY()));
+					snapshot.addLine(item.position.x, item.position.y, otherItem.position.x, otherItem.position.y, color);
 				}
 			}
 		}
 	}
 
 	/**
-	 * Handles all body collisions for the supplied object (relative to the grid-space)
+	 * Visits every pair of living bodies in the same or neighboring GridNodes exactly once (the full 3x3 neighborhood),
+	 * except for pairs between two GridNodes (or within one) where everything is asleep
 	 * 
-	 * @param item The item who's collisions are to be handled
+	 * @param handler The handler to call for each pair
 	 */
-	public void handleBodyCollisions(PhysObject item)
+	public void forEachPair(PairHandler handler)
 	{
-		MovableObject otherItem;
-		int code;
-
-		ArrayList<Integer> nodes = findNearbyGridNodes(item.position.x, item.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		for(int node = 0; node < numGridNodes; ++node)
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int start = cellStart[node], end = cellStart[node + 1];
+			if(start == end)
 			{
-				otherItem = itemIterator.next();
+				continue;
+			}
 
-				// Don't absorb players
-				if(otherItem.getClass() == Player.class) // TODO
+			// Pairs inside of the GridNode
+			if(cellAwake[node] > 0)
+			{
+				for(int i = start; i < end; ++i)
 				{
-					continue;
+					for(int j = i + 1; j < end; ++j)
+					{
+						handler.handlePair(cellItems[i], cellItems[j]);
+					}
 				}
+			}
 
+			// Pairs with the forward half of the neighborhood (the other half will visit this GridNode instead)
+			for(int k = 0; k < halfNeighborCounts[node]; ++k)
+			{
+				int otherNode = halfNeighborTable[(node * MAX_HALF_NEIGHBORS) + k];
+				if(cellAwake[node] == 0 && cellAwake[otherNode] == 0)
+				{
+					continue;
+				}
 
-				if(otherItem != item && otherItem.getClass() == PhysObject.class)
+				for(int i = start; i < end; ++i)
 				{
-					code = item.handleBodyCollision((PhysObject) otherItem);
-					if(code == PhysObject.CALLING_ITEM_ABSORBED) // The calling item was absorbed
-					{
-						// Remove the object, stop iterating
-						item.combine();
-						remove(item);
-						return;
-					}
-					else if(code == PhysObject.OTHER_ITEM_ABSORBED) // The otherItem was absorbed
+					for(int j = cellStart[otherNode]; j < cellStart[otherNode + 1]; ++j)
 					{
-						// Remove the object
-						((PhysObject)otherItem).combine();
-						itemIterator.remove();
+						handler.handlePair(cellItems[i], cellItems[j]);
 					}
 				}
 			}
@@ -211,51 +334,102 @@ public class Grid
 	}
 
 	/**
-	 * Handles all hard collisions for the supplied object (relative to the grid-space)
+	 * Handles all collisions between two nearby objects (called once for each pair)
 	 * 
-	 * @param item The object who's hard collisions are to be handled
+	 * @param first The first object
+	 * @param second The second object
 	 */
-	public void handlePhysicsCollisions(PhysObject item)
+	public void handleCollisionPair(PhysObject first, PhysObject second)
 	{
-		MovableObject otherItem;
-		int code;
+		if(!first.alive || !second.alive) // Removed earlier in this step
+		{
+			return;
+		}
 
-		ArrayList<Integer> nodes = findNearbyGridNodes(item.position.x, item.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		boolean firstIsBody = first.getClass() == PhysObject.class;
+		boolean secondIsBody = second.getClass() == PhysObject.class;
+
+		if(firstIsBody && secondIsBody) // Absorption
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int code = first.handleBodyCollision(second);
+			if(code == PhysObject.CALLING_ITEM_ABSORBED)
 			{
-				otherItem = itemIterator.next();
-				if(otherItem != item && otherItem instanceof PhysObject)
-				{
-					code = item.handleCollisions((PhysObject) otherItem);
-					if(code == 1) // If a collision occurred
-					{
-						if(otherItem.getClass() == PhysObject.class)
-						{
-							otherItem.delete();
-							itemIterator.remove();
-						}
-						else
-						{
-							((PhysObject)otherItem).handleCollisions((PhysObject) item);
+				first.combine();
+				remove(first);
+			}
+			else if(code == PhysObject.OTHER_ITEM_ABSORBED)
+			{
+				second.combine();
+				remove(second);
+			}
+		}
+		else if(firstIsBody || secondIsBody) // A ship and a meteoroid
+		{
+			PhysObject ship = firstIsBody ? second : first;
+			PhysObject body = firstIsBody ? first : second;
 
-							if(!((PhysObject)otherItem).alive)
-							{
-								otherItem.delete();
-								itemIterator.remove();
-							}
-						}
+			handleHardCollision(ship, body);
 
-						if(!item.alive)
-						{
-							remove(item);
-							return;
-						}
-					}
+			// Enemies watch out for meteoroids that are headed their way (meteoroids never absorb ships)
+			if(ship instanceof Enemy && ship.alive && body.alive)
+			{
+				ship.handleBodyCollision(body);
+			}
+		}
+		else // Two ships
+		{
+			// Each ship sees the other (the pair is only visited once)
+			first.notice(second);
+			second.notice(first);
+
+			handleHardCollision(first, second);
+		}
+	}
+
+	/**
+	 * Handles a hard collision between a ship and another object
+	 * 
+	 * @param item The ship
+	 * @param otherItem The other object
+	 */
+	private void handleHardCollision(PhysObject item, PhysObject otherItem)
+	{
+		if(item.handleCollisions(otherItem) == 1) // If a collision occurred
+		{
+			GameEvents.Collision event = new GameEvents.Collision();
+			event.begin();
+
+			if(otherItem.getClass() == PhysObject.class)
+			{
+				otherItem.delete();
+				remove(otherItem);
+			}
+			else
+			{
+				otherItem.handleCollisions(item);
+
+				if(!otherItem.alive)
+				{
+					otherItem.delete();
+					remove(otherItem);
 				}
 			}
+
+			if(!item.alive)
+			{
+				remove(item);
+			}
+
+			event.end();
+			if(event.shouldCommit())
+			{
+				event.ship = item.getClass().getSimpleName();
+				event.other = otherItem.getClass().getSimpleName();
+				event.otherMass = otherItem.mass;
+				event.shipDestroyed = !item.alive;
+				event.otherDestroyed = !otherItem.alive;
+				event.commit();
+			}
 		}
 	}
 
@@ -266,74 +440,127 @@ public class Grid
 	 */
 	public void handleLaserCollisions(Laser laser)
 	{
-		MovableObject otherItem;
+		PhysObject otherItem;
 
-		ArrayList<Integer> nodes = findNearbyGridNodes(laser.position.x, laser.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		int numNodes = findNearbyGridNodes(laser.position.x, laser.position.y, nearbyNodes);
+		for(int i = 0; i < numNodes; ++i)
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int node = nearbyNodes[i];
+			for(int j = cellStart[node]; j < cellStart[node + 1]; ++j)
 			{
-				otherItem = itemIterator.next();
-				if(otherItem != laser && otherItem instanceof PhysObject)
+				otherItem = state.bodies[cellItems[j]];
+				if(otherItem.alive)
 				{
 					if(laser.checkHit(otherItem)) // If a hit occurred
 					{
-						PhysObject otherPhysItem = (PhysObject)otherItem;
-						if(otherPhysItem.takeDamage(Globals.LASER_DAMAGE))
+						state.wake(cellItems[j]); // Knocked out of its rest
+						GameEvents.LaserHit event = new GameEvents.LaserHit();
+						if(event.isEnabled())
+						{
+							event.target = otherItem.getClass().getSimpleName();
+							event.damage = Globals.LASER_DAMAGE;
+						}
+
+						if(otherItem.takeDamage(Globals.LASER_DAMAGE))
 						{
-							itemIterator.remove();
+							event.destroyed = true;
+							remove(otherItem);
 						}
 						else
 						{
 							// Explode at the impact site
-							new Explosion(otherItem, laser.position.x, laser.position.y, Explosion.SMALL);
+							Explosion.create(otherItem, laser.position.x, laser.position.y, Explosion.SMALL);
 						}
 						laser.delete();
+						event.commit(); // Only recorded if the event is enabled
+						return; // A laser only hits one object
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Wakes every sleeping body near a point (relative to the grid-space)
+	 * 
+	 * @param state The state holding the bodies
+	 * @param x The x coordinate of the point
+	 * @param y The y coordinate of the point
+	 * @param distance How far from the point to wake bodies up
+	 */
+	public void wakeNear(PhysicsState state, double x, double y, double distance)
+	{
+		double distanceSquared = distance * distance;
+		int numNodes = findNearbyGridNodes(x, y, nearbyNodes);
+		for(int i = 0; i < numNodes; ++i)
+		{
+			int node = nearbyNodes[i];
+			if(cellAwake[node] == cellStart[node + 1] - cellStart[node])
+			{
+				continue; // Nobody to wake up
+			}
+
+			for(int j = cellStart[node]; j < cellStart[node + 1]; ++j)
+			{
+				int id = cellItems[j];
+				double dx = state.x[id] - x, dy = state.y[id] - y;
+				if(state.sleeping[id] && (dx * dx) + (dy * dy) < distanceSquared)
+				{
+					state.wake(id);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Determines the nearby GridNodes for the given point
 	 * 
+	 * With Globals.fullGridNeighborhood, this is every GridNode touching the point's GridNode. Otherwise, it is the point's
+	 * GridNode plus the three closest to the point (the quarter of the neighborhood that the point is in).
+	 * 
 	 * @param x The x coordinate for the point to check
 	 * @param y The y coordinate for the point to check
-	 * @return An ArrayList of the GridNode numbers for the nearby nodes
+	 * @param nodes The array to write the GridNode numbers into (at least MAX_NEARBY_GRID_NODES long)
+	 * @return The number of nearby GridNodes
 	 */
-	private ArrayList<Integer> findNearbyGridNodes(double x, double y)
+	protected int findNearbyGridNodes(double x, double y, int[] nodes)
 	{
-		ArrayList<Integer> nodeList = new ArrayList<Integer>();
-		int fourthPosition = NONE;
-
 		// Determine which GrideNode the position is in
 		int newGridNodeNum = findGridNode(x, y);
-		nodeList.add(newGridNodeNum);
+
+		if(Globals.fullGridNeighborhood)
+		{
+			int count = neighborCounts[newGridNodeNum];
+			System.arraycopy(neighborTable, newGridNodeNum * MAX_NEARBY_GRID_NODES, nodes, 0, count);
+			return count;
+		}
+
+		int count = 0;
+		int fourthPosition = NONE;
+		nodes[count++] = newGridNodeNum;
 
 		if(leftGridNodeExists(newGridNodeNum) && rightGridNodeExists(newGridNodeNum))
 		{
 			// If the object is closer to the next-left GridNode than the right one
 			if(Math.abs(x - ((newGridNodeNum % numXGridNodes) * gridSize)) < Math.abs(x - (((newGridNodeNum + 1) % numXGridNodes) * gridSize)))
 			{
-				nodeList.add(newGridNodeNum - 1);
+				nodes[count++] = newGridNodeNum - 1;
 				fourthPosition |= LEFT;
 			}
 			else // If the object is closer to the next-right GridNode than the left one
 			{
-				nodeList.add(newGridNodeNum + 1);
+				nodes[count++] = newGridNodeNum + 1;
 				fourthPosition |= RIGHT;
 			}
 		}
 		else if(leftGridNodeExists(newGridNodeNum))
 		{
-			nodeList.add(newGridNodeNum - 1);
+			nodes[count++] = newGridNodeNum - 1;
 			fourthPosition |= LEFT;
 		}
 		else if(rightGridNodeExists(newGridNodeNum))
 		{
-			nodeList.add(newGridNodeNum + 1);
+			nodes[count++] = newGridNodeNum + 1;
 			fourthPosition |= RIGHT;
 		}
 
@@ -342,44 +569,44 @@ public class Grid
 			// If the object is closer to the next-top GridNode than the bottom one
 			if(Math.abs(y - ((newGridNodeNum / numXGridNodes) * gridSize)) < Math.abs(y - (((newGridNodeNum + numXGridNodes) / numXGridNodes) * gridSize)))
 			{
-				nodeList.add(newGridNodeNum - numXGridNodes);
+				nodes[count++] = newGridNodeNum - numXGridNodes;
 				fourthPosition |= TOP;
 			}
 			else // If the object is closer to the next-bottom GridNode than the top one
 			{
-				nodeList.add(newGridNodeNum + numXGridNodes);
+				nodes[count++] = newGridNodeNum + numXGridNodes;
 				fourthPosition |= BOTTOM;
 			}
 		}
 		else if(topGridNodeExists(newGridNodeNum))
 		{
-			nodeList.add(newGridNodeNum - numXGridNodes);
+			nodes[count++] = newGridNodeNum - numXGridNodes;
 			fourthPosition |= TOP;
 		}
 		else if(bottomGridNodeExists(newGridNodeNum))
 		{
-			nodeList.add(newGridNodeNum + numXGridNodes);
+			nodes[count++] = newGridNodeNum + numXGridNodes;
 			fourthPosition |= BOTTOM;
 		}
 
 		if(fourthPosition == (LEFT | TOP))
 		{
-			nodeList.add(newGridNodeNum - 1 - numXGridNodes);
+			nodes[count++] = newGridNodeNum - 1 - numXGridNodes;
 		}
 		else if(fourthPosition == (RIGHT | TOP))
 		{
-			nodeList.add(newGridNodeNum + 1 - numXGridNodes);
+			nodes[count++] = newGridNodeNum + 1 - numXGridNodes;
 		}
 		else if(fourthPosition == (LEFT | BOTTOM))
 		{
-			nodeList.add(newGridNodeNum - 1 + numXGridNodes);
+			nodes[count++] = newGridNodeNum - 1 + numXGridNodes;
 		}
 		else if(fourthPosition == (RIGHT | BOTTOM))
 		{
-			nodeList.add(newGridNodeNum + 1 + numXGridNodes);
+			nodes[count++] = newGridNodeNum + 1 + numXGridNodes;
 		}
 
-		return nodeList;
+		return count;
 	}
 
 	/**
@@ -428,22 +655,51 @@ public class Grid
 	 */
 	private boolean gridNodeExists(int gridNodeNum)
 	{
-		return (gridNodeNum >= 0) && (gridNodeNum < gridNodes.length);
+		return (gridNodeNum >= 0) && (gridNodeNum < numGridNodes);
+	}
+
+	/**
+	 * Determines every GridNode that overlaps a rectangle (for culling)
+	 * 
+	 * @param x The x coordinate of the upper left of the rectangle
+	 * @param y The y coordinate of the upper left of the rectangle
+	 * @param width The width of the rectangle
+	 * @param height The height of the rectangle
+	 * @param nodes The array to write the GridNode numbers into (at least numGridNodes long)
+	 * @return The number of overlapping GridNodes
+	 */
+	protected int findGridNodesInRect(double x, double y, double width, double height, int[] nodes)
+	{
+		// The corners are clamped to the grid, like any other position
+		int firstNode = findGridNode(x, y);
+		int lastNode = findGridNode(x + width, y + height);
+		int firstColumn = firstNode % numXGridNodes, lastColumn = lastNode % numXGridNodes;
+		int firstRow = firstNode / numXGridNodes, lastRow = lastNode / numXGridNodes;
+
+		int count = 0;
+		for(int row = firstRow; row <= lastRow; ++row)
+		{
+			for(int column = firstColumn; column <= lastColumn; ++column)
+			{
+				nodes[count++] = column + (row * numXGridNodes);
+			}
+		}
+
+		return count;
 	}
 
 	/**
 	 * Draws a visual representation of the grid
 	 * 
-	 * @param canvas2D The canvas to draw on
+	 * @param snapshot The snapshot to draw into
 	 */
-	protected void drawGrid(Graphics2D canvas2D)
+	protected void drawGrid(RenderSnapshot snapshot)
 	{
-		canvas2D.setColor(Color.lightGray);
 		for(int i = 0; i < numXGridNodes; ++i)
 		{
 			for(int j = 0; j < numYGridNodes; ++j)
 			{
-				canvas2D.drawRect(i * gridSize - (int)(Globals.camera.bounds.getX() + 0.5), j * gridSize - (int)(Globals.camera.bounds.getY() + 0.5), gridSize, gridSize);
+				snapshot.addRect(i * gridSize, j * gridSize, gridSize, gridSize, Color.lightGray);
 			}
 		}
 	}
@@ -452,22 +708,22 @@ public class Grid
 	 * Draws the closest enemy to the player
 	 * 
 	 * @param ship The player
-	 * @param canvas2D The canvas to draw on
+	 * @param snapshot The snapshot to draw into
 	 */
-	protected void drawClosestEnemy(Player ship, Graphics2D canvas2D)
+	protected void drawClosestEnemy(Player ship, RenderSnapshot snapshot)
 	{
-		MovableObject otherItem = null;
+		PhysObject otherItem = null;
 		Enemy closestEnemy = null;
 		double closestDistance = 999999;
 
-		ArrayList<Integer> nodes = findNearbyGridNodes(ship.position.x, ship.position.y);
-		for(int i = 0; i < nodes.size(); ++i)
+		int numNodes = findNearbyGridNodes(ship.position.x, ship.position.y, nearbyNodes);
+		for(int i = 0; i < numNodes; ++i)
 		{
-			Iterator<MovableObject> itemIterator = gridNodes[nodes.get(i)].items.iterator();
-			while(itemIterator.hasNext())
+			int node = nearbyNodes[i];
+			for(int j = cellStart[node]; j < cellStart[node + 1]; ++j)
 			{
-				otherItem = itemIterator.next();
-				if(otherItem != ship && otherItem instanceof Enemy)
+				otherItem = state.bodies[cellItems[j]];
+				if(state.kind[cellItems[j]] == PhysicsState.ENEMY && otherItem.alive)
 				{
 					double dist = ship.position.distance(otherItem.position);
 					if(dist < closestDistance)
@@ -481,23 +737,21 @@ public class Grid
 
 		if(closestEnemy != null)
 		{
-			canvas2D.setColor(Color.magenta);
-			canvas2D.drawLine((int)(ship.position.x - Globals.camera.bounds.getX()), (int)(ship.position.y - Globals.camera.bounds.getY()), (int)(closestEnemy.position.x - Globals.camera.bounds.getX()), (int)(closestEnemy.position.y - Globals.camera.bounds.getY()));
+			snapshot.addLine(ship.position.x, ship.position.y, closestEnemy.position.x, closestEnemy.position.y, Color.magenta);
 		}
 	}
 
 	/**
-	 * GridNode class used in the grid
+	 * Callback for Grid.forEachPair
 	 * 
 	 * @author Aaron Jacobs
 	 */
-	protected static class GridNode
+	public interface PairHandler
 	{
-		protected LinkedList<MovableObject> items;
-
-		public GridNode()
-		{
-			items = new LinkedList<MovableObject>();
-		}
+		/**
+		 * @param first The id of the first body in the pair
+		 * @param second The id of the second body in the pair
+		 */
+		public void handlePair(int first, int second);
 	}
 }
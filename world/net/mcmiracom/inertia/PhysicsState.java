@@ -0,0 +1,858 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Structure-of-arrays store for the state of every PhysObject (indexed by each object's id), and the registry of every
+ * PhysObject in the game
+ *
+ * The arrays are the authoritative state while a step is running. Each PhysObject's position, velocity, and acceleration
+ * are its view of that state - they are read in before the kernel runs, and written back once it has finished.
+ *
+ * Dead bodies are removed by compact() at the end of every tick, which packs the living bodies to the front (so their
+ * ids change). Anything that needs to refer to a body across ticks should keep its handle instead, which stays valid
+ * until the body is removed (and never points at a different body after that).
+ *
+ * Meteoroids that have barely moved (and barely been pulled) for SLEEP_TICKS steps in a row fall asleep, and are left out
+ * of collisions, gravity, and integration until something wakes them up: a moving body coming close enough to pull on
+ * them, a collision, a laser hit, or a change in the mass of a body nearby. The grid keeps a count of the bodies that are
+ * awake in each GridNode, so GridNodes where everything is asleep are skipped entirely.
+ *
+ * @author Aaron Jacobs
+ */
+public class PhysicsState
+{
+	private static final int INITIAL_CAPACITY = 256;
+	private static final int NODES_PER_TASK = 2, BODIES_PER_TASK = 2048;
+
+	// Sleeping (a meteoroid slower than SLEEP_SPEED, and pulled by less than SLEEP_ACCELERATION, for SLEEP_TICKS steps)
+	private static final double SLEEP_SPEED = 5.0, SLEEP_ACCELERATION = 5.0;
+	private static final int SLEEP_TICKS = Globals.STEPS_PER_SECOND;
+
+	// Kinds of bodies (so bodies can be counted and filtered without instanceof checks)
+	public static final int BODY = 0, ENEMY = 1, PLAYER = 2, NUM_KINDS = 3;
+	public static final long NO_HANDLE = -1L;
+
+	protected int count;
+	protected PhysObject[] bodies;
+	protected int[] kind;
+	private int[] kindCounts;
+	protected boolean[] active;
+	protected boolean[] sleeping;
+	private int[] sleepTicks; // Steps in a row that each body has been quiet for
+	protected double[] x, y, vx, vy, ax, ay, mass, radius;
+	protected double[] previousX, previousY; // Positions after the previous step (used for render interpolation)
+	protected double maxRadius; // The radius of the largest active body (as of the last step)
+
+	// Handles (a handle is its generation in the high 32 bits, and its index in these arrays in the low 32 bits)
+	private int[] handleIndex; // The handle index of each id
+	private int[] handleIds; // The id that each handle index points to (-1 if it's free)
+	private int[] handleGenerations; // Incremented whenever a handle index is freed
+	private int numHandles;
+	private int[] freeHandles;
+	private int numFreeHandles;
+
+	private final Grid.PairHandler collisionPairs = new Grid.PairHandler() {
+		public void handlePair(int first, int second)
+		{
+			if(sleeping[first] || sleeping[second])
+			{
+				if(sleeping[first] && sleeping[second])
+				{
+					return; // Neither one is going anywhere
+				}
+				wakeIfDisturbed(sleeping[first] ? first : second, sleeping[first] ? second : first);
+			}
+			Globals.grid.handleCollisionPair(bodies[first], bodies[second]);
+		}
+	};
+
+	private final Grid.PairHandler gravityPairs = new Grid.PairHandler() {
+		public void handlePair(int first, int second)
+		{
+			if(active[first] && active[second] && !(sleeping[first] && sleeping[second]))
+			{
+				addMutualAttraction(first, second);
+			}
+		}
+	};
+
+	public PhysicsState()
+	{
+		count = 0;
+		bodies = new PhysObject[INITIAL_CAPACITY];
+		kind = new int[INITIAL_CAPACITY];
+		kindCounts = new int[NUM_KINDS];
+		active = new boolean[INITIAL_CAPACITY];
+		sleeping = new boolean[INITIAL_CAPACITY];
+		sleepTicks = new int[INITIAL_CAPACITY];
+		x = new double[INITIAL_CAPACITY];
+		y = new double[INITIAL_CAPACITY];
+		vx = new double[INITIAL_CAPACITY];
+		vy = new double[INITIAL_CAPACITY];
+		ax = new double[INITIAL_CAPACITY];
+		ay = new double[INITIAL_CAPACITY];
+		mass = new double[INITIAL_CAPACITY];
+		radius = new double[INITIAL_CAPACITY];
+		previousX = new double[INITIAL_CAPACITY];
+		previousY = new double[INITIAL_CAPACITY];
+
+		handleIndex = new int[INITIAL_CAPACITY];
+		handleIds = new int[INITIAL_CAPACITY];
+		handleGenerations = new int[INITIAL_CAPACITY];
+		freeHandles = new int[INITIAL_CAPACITY];
+		numHandles = 0;
+		numFreeHandles = 0;
+	}
+
+	/**
+	 * Adds a body to the state (and gives it a handle)
+	 *
+	 * @param body The body to add
+	 * @return The id of the body
+	 */
+	public int add(PhysObject body)
+	{
+		if(count == bodies.length)
+		{
+			grow(count * 2);
+		}
+
+		int id = count++;
+		bodies[id] = body;
+		active[id] = body.alive;
+		sleeping[id] = false;
+		sleepTicks[id] = 0;
+		kind[id] = kindOf(body);
+		++kindCounts[kind[id]];
+
+		int index = allocateHandle();
+		handleIds[index] = id;
+		handleIndex[id] = index;
+		body.handle = ((long)handleGenerations[index] << 32) | index;
+
+		return id;
+	}
+
+	/**
+	 * @return The number of bodies (the ids are 0 up to, but not including, this)
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * @param bodyKind The kind of body (BODY, ENEMY, or PLAYER)
+	 * @return The number of bodies of that kind (including any that have died since the last compact)
+	 */
+	public int countOf(int bodyKind)
+	{
+		return kindCounts[bodyKind];
+	}
+
+	/**
+	 * Finds the body that a handle refers to
+	 *
+	 * @param handle The handle
+	 * @return The body, or null if it has been removed
+	 */
+	public PhysObject resolve(long handle)
+	{
+		if(handle == NO_HANDLE)
+		{
+			return null;
+		}
+
+		int index = (int)handle;
+		int generation = (int)(handle >>> 32);
+		if(index < 0 || index >= numHandles || handleGenerations[index] != generation || handleIds[index] < 0)
+		{
+			return null;
+		}
+
+		return bodies[handleIds[index]];
+	}
+
+	/**
+	 * Removes every dead body, moving the living ones down to fill the gaps (their ids change, their handles don't)
+	 *
+	 * @return If any bodies were removed (the grid needs to be rebuilt if so)
+	 */
+	public boolean compact()
+	{
+		int live = 0;
+		Arrays.fill(kindCounts, 0);
+		for(int i = 0; i < count; ++i)
+		{
+			PhysObject body = bodies[i];
+			if(!body.alive)
+			{
+				freeHandle(handleIndex[i]);
+				body.id = -1;
+				continue;
+			}
+
+			if(live != i)
+			{
+				move(i, live);
+			}
+			++kindCounts[kind[live]];
+			++live;
+		}
+
+		if(live == count)
+		{
+			return false;
+		}
+
+		Arrays.fill(bodies, live, count, null);
+		count = live;
+		return true;
+	}
+
+	/**
+	 * Removes every body
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < count; ++i)
+		{
+			freeHandle(handleIndex[i]);
+			bodies[i].id = -1;
+			bodies[i] = null;
+		}
+		Arrays.fill(kindCounts, 0);
+		count = 0;
+	}
+
+	/**
+	 * Runs a single physics step
+	 *
+	 * @param timeStep The length of the step (in seconds)
+	 */
+	public void step(double timeStep)
+	{
+		Profiler profiler = Globals.stepProfiler;
+
+		// Pick up any bodies that were spawned since the last step
+		if(Globals.grid.needsRebuild())
+		{
+			Globals.grid.rebuild(this);
+		}
+		profiler.mark(Profiler.GRID);
+
+		// Pick the enemies that think this step (before they look out for meteoroids)
+		Globals.aiScheduler.plan(this);
+		profiler.mark(Profiler.AI);
+
+		/********** Collisions (against each object's current view) **********/
+		for(int i = 0; i < count; ++i)
+		{
+			if(bodies[i].alive && !sleeping[i])
+			{
+				bodies[i].move();
+			}
+		}
+		Globals.grid.forEachPair(collisionPairs);
+		profiler.mark(Profiler.COLLISIONS);
+
+		/********** Read in the object views **********/
+		maxRadius = 0.0;
+		for(int i = 0; i < count; ++i)
+		{
+			// A sleeping body's view can't change without waking it up (unless it was absorbed)
+			if(!sleeping[i] || !bodies[i].alive)
+			{
+				load(i);
+			}
+			if(active[i] && radius[i] > maxRadius)
+			{
+				maxRadius = radius[i];
+			}
+		}
+
+		/********** Gravity **********/
+		computeGravity();
+		profiler.mark(Profiler.GRAVITY);
+
+		/********** Thrusters **********/
+		Globals.aiScheduler.run(this);
+		for(int i = 0; i < count; ++i)
+		{
+			if(active[i] && !sleeping[i] && bodies[i].thrust)
+			{
+				PhysObject body = bodies[i];
+				body.acceleration.x = ax[i];
+				body.acceleration.y = ay[i];
+				body.handleThrust();
+				ax[i] = body.acceleration.x;
+				ay[i] = body.acceleration.y;
+			}
+		}
+		profiler.mark(Profiler.AI);
+
+		/********** Integration **********/
+		integrate(timeStep);
+
+		/********** Write out the object views **********/
+		for(int i = 0; i < count; ++i)
+		{
+			if(active[i] && !sleeping[i])
+			{
+				updateSleep(i);
+				store(i);
+			}
+		}
+		profiler.mark(Profiler.INTEGRATION);
+
+		Globals.grid.rebuild(this);
+		profiler.mark(Profiler.GRID);
+	}
+
+	/**
+	 * Calculates the gravitational acceleration of every active body
+	 */
+	protected void computeGravity()
+	{
+		Arrays.fill(ax, 0, count, 0.0);
+		Arrays.fill(ay, 0, count, 0.0);
+
+		if(Globals.barnesHut)
+		{
+			Globals.quadTree.build(this);
+		}
+
+		if(Globals.parallelPhysics)
+		{
+			// Every body only writes its own acceleration, so the GridNodes can be split up between threads
+			ForkJoinPool.commonPool().invoke(new GravityTask(0, Globals.grid.numGridNodes));
+		}
+		else if(!Globals.barnesHut && Globals.fullGridNeighborhood)
+		{
+			// The full neighborhood is symmetric, so each nearby pair can be handled once (pulling both bodies together). The
+			// sums are added up in a different order than the parallel physics does, so the results aren't bit-identical
+			Globals.grid.forEachPair(gravityPairs);
+		}
+		else
+		{
+			for(int i = 0; i < count; ++i)
+			{
+				if(active[i] && !sleeping[i])
+				{
+					computeGravity(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the gravitational acceleration of a single body (only reads the positions and masses of other bodies)
+	 *
+	 * @param id The id of the body
+	 */
+	protected void computeGravity(int id)
+	{
+		if(Globals.barnesHut)
+		{
+			// The whole world (far bodies are approximated)
+			Globals.quadTree.calculateAttraction(this, id);
+		}
+		else
+		{
+			// Local attractions only (based on grid position)
+			Globals.grid.calculateAttraction(this, id);
+		}
+	}
+
+	/**
+	 * Integrates velocities and positions (split between threads in parallel mode)
+	 *
+	 * @param timeStep The length of the step (in seconds)
+	 */
+	protected void integrate(double timeStep)
+	{
+		if(Globals.parallelPhysics)
+		{
+			ForkJoinPool.commonPool().invoke(new IntegrateTask(0, count, timeStep));
+		}
+		else
+		{
+			integrate(0, count, timeStep);
+		}
+	}
+
+	/**
+	 * Integrates velocities and positions, and keeps every active body inside of the world
+	 *
+	 * @param first The first id to integrate
+	 * @param last One past the last id to integrate
+	 * @param timeStep The length of the step (in seconds)
+	 */
+	protected void integrate(int first, int last, double timeStep)
+	{
+		double max = Globals.levelSize - 1;
+
+		for(int i = first; i < last; ++i)
+		{
+			if(!active[i] || sleeping[i])
+			{
+				continue;
+			}
+
+			// Add acceleration
+			vx[i] += ax[i] * timeStep;
+			vy[i] += ay[i] * timeStep;
+
+			// Terminal velocity
+			if(vx[i] > Globals.TERMINAL_VEL)
+			{
+				vx[i] = Globals.TERMINAL_VEL;
+			}
+			else if(vx[i] < -Globals.TERMINAL_VEL)
+			{
+				vx[i] = -Globals.TERMINAL_VEL;
+			}
+			if(vy[i] > Globals.TERMINAL_VEL)
+			{
+				vy[i] = Globals.TERMINAL_VEL;
+			}
+			else if(vy[i] < -Globals.TERMINAL_VEL)
+			{
+				vy[i] = -Globals.TERMINAL_VEL;
+			}
+
+			// Add velocity
+			x[i] += vx[i] * timeStep;
+			y[i] += vy[i] * timeStep;
+
+			// Edge collisions (same as PhysObject.checkBounds)
+			if(x[i] < 1)
+			{
+				x[i] = 1;
+				vx[i] = -vx[i] / 4;
+				ax[i] = 0;
+			}
+			if(x[i] > max)
+			{
+				x[i] = max;
+				vx[i] = -vx[i] / 4;
+				ax[i] = 0;
+			}
+			if(y[i] < 1)
+			{
+				y[i] = 1;
+				vy[i] = -vy[i] / 4;
+				ay[i] = 0;
+			}
+			if(y[i] > max)
+			{
+				y[i] = max;
+				vy[i] = -vy[i] / 4;
+				ay[i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Adds the acceleration caused by a single mass to a body
+	 *
+	 * @param id The id of the body being attracted
+	 * @param otherX The x coordinate of the attracting mass
+	 * @param otherY The y coordinate of the attracting mass
+	 * @param otherMass The attracting mass
+	 */
+	protected void addAttraction(int id, double otherX, double otherY, double otherMass)
+	{
+		double dx = otherX - x[id];
+		double dy = otherY - y[id];
+		double distanceSquared = (dx * dx) + (dy * dy);
+		if(distanceSquared == 0.0)
+		{
+			return; // No direction to pull in
+		}
+
+		double distance = Math.sqrt(distanceSquared);
+		if(distanceSquared < 100.0)
+		{
+			distanceSquared = 100.0;
+		}
+
+		// Force of gravity = (G*m1*m2)/(distance^2), and a = f / m1
+		double accelerationMagnitude = (Globals.GRAVITY_ATTRACTION * otherMass) / distanceSquared;
+		ax[id] += (dx / distance) * accelerationMagnitude;
+		ay[id] += (dy / distance) * accelerationMagnitude;
+	}
+
+	/**
+	 * Adds the equal and opposite gravitational pull between two bodies to both of their accelerations
+	 * 
+	 * @param first The id of the first body
+	 * @param second The id of the second body
+	 */
+	protected void addMutualAttraction(int first, int second)
+	{
+		double dx = x[second] - x[first];
+		double dy = y[second] - y[first];
+		double distanceSquared = (dx * dx) + (dy * dy);
+		if(distanceSquared == 0.0)
+		{
+			return; // No direction to pull in
+		}
+
+		double distance = Math.sqrt(distanceSquared);
+		if(distanceSquared < 100.0)
+		{
+			distanceSquared = 100.0;
+		}
+
+		// The force is shared, so each acceleration only depends on the other body's mass
+		double pull = Globals.GRAVITY_ATTRACTION / (distanceSquared * distance);
+		double firstPull = pull * mass[second];
+		double secondPull = pull * mass[first];
+		ax[first] += dx * firstPull;
+		ay[first] += dy * firstPull;
+		ax[second] -= dx * secondPull;
+		ay[second] -= dy * secondPull;
+	}
+
+	/**
+	 * Moves a body without interpolating from its old position (for spawning and teleporting)
+	 *
+	 * @param id The id of the body
+	 * @param newX The new x position
+	 * @param newY The new y position
+	 */
+	protected void snapTo(int id, double newX, double newY)
+	{
+		x[id] = previousX[id] = newX;
+		y[id] = previousY[id] = newY;
+		wake(id);
+	}
+
+	/**
+	 * Counts how long a body has been quiet for, and puts it to sleep once it has been quiet for long enough (only
+	 * meteoroids sleep - ships are always thinking)
+	 *
+	 * @param id The id of the (awake) body
+	 */
+	private void updateSleep(int id)
+	{
+		if(!Globals.sleepingBodies || kind[id] != BODY)
+		{
+			return;
+		}
+
+		boolean quiet = (vx[id] * vx[id]) + (vy[id] * vy[id]) < SLEEP_SPEED * SLEEP_SPEED
+				&& (ax[id] * ax[id]) + (ay[id] * ay[id]) < SLEEP_ACCELERATION * SLEEP_ACCELERATION;
+		if(!quiet)
+		{
+			sleepTicks[id] = 0;
+			return;
+		}
+
+		if(++sleepTicks[id] >= SLEEP_TICKS)
+		{
+			// Come to a complete stop (so the object's view is left exactly where it fell asleep)
+			sleeping[id] = true;
+			vx[id] = vy[id] = ax[id] = ay[id] = 0.0;
+			--Globals.grid.cellAwake[bodies[id].gridNodeNum];
+		}
+	}
+
+	/**
+	 * Wakes a body up (if it's asleep)
+	 *
+	 * @param id The id of the body
+	 */
+	public void wake(int id)
+	{
+		sleepTicks[id] = 0;
+		if(sleeping[id])
+		{
+			sleeping[id] = false;
+			++Globals.grid.cellAwake[bodies[id].gridNodeNum];
+		}
+	}
+
+	/**
+	 * Wakes a sleeping body if an awake one is moving close enough to it to start pulling it along (or to hit it)
+	 *
+	 * @param sleeper The id of the sleeping body
+	 * @param other The id of the awake body
+	 */
+	private void wakeIfDisturbed(int sleeper, int other)
+	{
+		PhysObject sleeperBody = bodies[sleeper], otherBody = bodies[other];
+		double speedSquared = (otherBody.velocity.x * otherBody.velocity.x) + (otherBody.velocity.y * otherBody.velocity.y);
+		if(!otherBody.alive || speedSquared < SLEEP_SPEED * SLEEP_SPEED)
+		{
+			return; // Resting bodies would just wake each other back up
+		}
+
+		double dx = otherBody.position.x - sleeperBody.position.x;
+		double dy = otherBody.position.y - sleeperBody.position.y;
+		double distance = wakeDistance(otherBody.mass) + radius[sleeper] + radius[other];
+		if((dx * dx) + (dy * dy) < distance * distance)
+		{
+			wake(sleeper);
+		}
+	}
+
+	/**
+	 * Wakes a body, and every sleeping body close enough to feel the change in its mass (called whenever a body's mass
+	 * changes, or it's removed)
+	 *
+	 * @param id The id of the body
+	 * @param massChange How much the body's mass changed by
+	 */
+	public void massChanged(int id, double massChange)
+	{
+		wake(id);
+		Globals.grid.wakeNear(this, bodies[id].position.x, bodies[id].position.y, wakeDistance(massChange) + maxRadius);
+	}
+
+	/**
+	 * @param bodyMass A mass
+	 * @return How far away the mass pulls with more than SLEEP_ACCELERATION
+	 */
+	private static double wakeDistance(double bodyMass)
+	{
+		return Math.sqrt((Globals.GRAVITY_ATTRACTION * Math.abs(bodyMass)) / SLEEP_ACCELERATION);
+	}
+
+	/**
+	 * @return The number of bodies that are asleep
+	 */
+	public int countSleeping()
+	{
+		int numSleeping = 0;
+		for(int i = 0; i < count; ++i)
+		{
+			if(sleeping[i])
+			{
+				++numSleeping;
+			}
+		}
+		return numSleeping;
+	}
+
+	/**
+	 * Reads a body's view into the arrays
+	 *
+	 * @param id The id of the body
+	 */
+	protected void load(int id)
+	{
+		PhysObject body = bodies[id];
+		active[id] = body.alive;
+		previousX[id] = x[id];
+		previousY[id] = y[id];
+		x[id] = body.position.x;
+		y[id] = body.position.y;
+		vx[id] = body.velocity.x;
+		vy[id] = body.velocity.y;
+		mass[id] = body.mass;
+		radius[id] = ((body.bounds.getWidth() / 2) + (body.bounds.getHeight() / 2)) / 2;
+	}
+
+	/**
+	 * Writes the arrays back out to a body's view
+	 *
+	 * @param id The id of the body
+	 */
+	protected void store(int id)
+	{
+		PhysObject body = bodies[id];
+		body.position.x = x[id];
+		body.position.y = y[id];
+		body.velocity.x = vx[id];
+		body.velocity.y = vy[id];
+		body.acceleration.x = ax[id];
+		body.acceleration.y = ay[id];
+		body.bounds.setFrame(x[id] - (body.bounds.getWidth() / 2), y[id] - (body.bounds.getHeight() / 2), body.bounds.getWidth(), body.bounds.getHeight());
+	}
+
+	/**
+	 * Moves a body to a lower id (while compacting)
+	 *
+	 * @param from The body's current id
+	 * @param to The body's new id
+	 */
+	private void move(int from, int to)
+	{
+		bodies[to] = bodies[from];
+		kind[to] = kind[from];
+		active[to] = active[from];
+		sleeping[to] = sleeping[from];
+		sleepTicks[to] = sleepTicks[from];
+		x[to] = x[from];
+		y[to] = y[from];
+		vx[to] = vx[from];
+		vy[to] = vy[from];
+		ax[to] = ax[from];
+		ay[to] = ay[from];
+		mass[to] = mass[from];
+		radius[to] = radius[from];
+		previousX[to] = previousX[from];
+		previousY[to] = previousY[from];
+
+		handleIndex[to] = handleIndex[from];
+		handleIds[handleIndex[to]] = to;
+		bodies[to].id = to;
+	}
+
+	/**
+	 * @param body A body
+	 * @return The kind of the body
+	 */
+	private static int kindOf(PhysObject body)
+	{
+		if(body instanceof Player)
+		{
+			return PLAYER;
+		}
+		if(body instanceof Enemy)
+		{
+			return ENEMY;
+		}
+		return BODY;
+	}
+
+	/**
+	 * @return A free handle index (reusing a freed one if possible)
+	 */
+	private int allocateHandle()
+	{
+		if(numFreeHandles > 0)
+		{
+			return freeHandles[--numFreeHandles];
+		}
+
+		if(numHandles == handleIds.length)
+		{
+			handleIds = Arrays.copyOf(handleIds, numHandles * 2);
+			handleGenerations = Arrays.copyOf(handleGenerations, numHandles * 2);
+			freeHandles = Arrays.copyOf(freeHandles, numHandles * 2);
+		}
+
+		handleGenerations[numHandles] = 1;
+		return numHandles++;
+	}
+
+	/**
+	 * Frees a handle index (every handle to it is now stale)
+	 *
+	 * @param index The handle index
+	 */
+	private void freeHandle(int index)
+	{
+		handleIds[index] = -1;
+		++handleGenerations[index];
+		freeHandles[numFreeHandles++] = index;
+	}
+
+	/**
+	 * Grows every array to the new capacity
+	 *
+	 * @param capacity The new capacity
+	 */
+	private void grow(int capacity)
+	{
+		bodies = Arrays.copyOf(bodies, capacity);
+		kind = Arrays.copyOf(kind, capacity);
+		handleIndex = Arrays.copyOf(handleIndex, capacity);
+		active = Arrays.copyOf(active, capacity);
+		sleeping = Arrays.copyOf(sleeping, capacity);
+		sleepTicks = Arrays.copyOf(sleepTicks, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		vx = Arrays.copyOf(vx, capacity);
+		vy = Arrays.copyOf(vy, capacity);
+		ax = Arrays.copyOf(ax, capacity);
+		ay = Arrays.copyOf(ay, capacity);
+		mass = Arrays.copyOf(mass, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		previousX = Arrays.copyOf(previousX, capacity);
+		previousY = Arrays.copyOf(previousY, capacity);
+	}
+
+	/**
+	 * Calculates gravity for the bodies in a range of GridNodes (work stealing evens out uneven meteoroid density)
+	 *
+	 * @author Aaron Jacobs
+	 */
+	private class GravityTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 7140624383370219562L;
+		private final int firstNode, lastNode;
+
+		public GravityTask(int firstNode, int lastNode)
+		{
+			this.firstNode = firstNode;
+			this.lastNode = lastNode;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(lastNode - firstNode > NODES_PER_TASK)
+			{
+				int middle = (firstNode + lastNode) >>> 1;
+				invokeAll(new GravityTask(firstNode, middle), new GravityTask(middle, lastNode));
+				return;
+			}
+
+			Grid grid = Globals.grid;
+			for(int node = firstNode; node < lastNode; ++node)
+			{
+				if(grid.cellAwake[node] == 0)
+				{
+					continue; // Everything in it is asleep
+				}
+
+				for(int i = grid.cellStart[node]; i < grid.cellStart[node + 1]; ++i)
+				{
+					if(active[grid.cellItems[i]] && !sleeping[grid.cellItems[i]])
+					{
+						computeGravity(grid.cellItems[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Integrates a range of bodies
+	 *
+	 * @author Aaron Jacobs
+	 */
+	private class IntegrateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = -2911735045467960236L;
+		private final int first, last;
+		private final double timeStep;
+
+		public IntegrateTask(int first, int last, double timeStep)
+		{
+			this.first = first;
+			this.last = last;
+			this.timeStep = timeStep;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(last - first > BODIES_PER_TASK)
+			{
+				int middle = (first + last) >>> 1;
+				invokeAll(new IntegrateTask(first, middle, timeStep), new IntegrateTask(middle, last, timeStep));
+				return;
+			}
+
+			integrate(first, last, timeStep);
+		}
+	}
+}
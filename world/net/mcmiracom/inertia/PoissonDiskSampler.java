@@ -0,0 +1,260 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Spreads points evenly (but randomly) over the world, no closer than a minimum distance to each other, and outside of a
+ * circle kept clear around the spawn point (Bridson's algorithm, which runs in linear time)
+ *
+ * Large worlds are split into tiles that are sampled in parallel. Each tile gets its own random generator, split off
+ * from the world's in a fixed order, and the tiles' points are joined in a fixed order, so the same seed always gives the
+ * same points no matter how the work is scheduled. Points stay half the minimum distance away from the inside edges of
+ * their tile, so points in neighboring tiles are never too close either.
+ *
+ * @author Aaron Jacobs
+ */
+public class PoissonDiskSampler
+{
+	public static final double TILE_SIZE = 2500.0;
+	private static final int ATTEMPTS = 30; // Candidates tried around each point before giving up on it
+
+	private final double width, height, minDistance;
+	private final double clearX, clearY, clearRadius;
+
+	/**
+	 * @param width The width of the area
+	 * @param height The height of the area
+	 * @param minDistance The minimum distance between points
+	 * @param clearX The x coordinate of the center of the clear circle
+	 * @param clearY The y coordinate of the center of the clear circle
+	 * @param clearRadius The radius of the clear circle (0 for none)
+	 */
+	public PoissonDiskSampler(double width, double height, double minDistance, double clearX, double clearY, double clearRadius)
+	{
+		this.width = width;
+		this.height = height;
+		this.minDistance = minDistance;
+		this.clearX = clearX;
+		this.clearY = clearY;
+		this.clearRadius = clearRadius;
+	}
+
+	/**
+	 * Samples the whole area
+	 *
+	 * @param random The generator to split the tiles' generators from
+	 * @return The points, as x and y pairs ({x0, y0, x1, y1, ...})
+	 */
+	public double[] sample(SplittableRandom random)
+	{
+		int numXTiles = Math.max(1, (int)Math.ceil(width / TILE_SIZE));
+		int numYTiles = Math.max(1, (int)Math.ceil(height / TILE_SIZE));
+		int numTiles = numXTiles * numYTiles;
+
+		// Split in tile order (before anything runs), so each tile always gets the same generator
+		SplittableRandom[] randoms = new SplittableRandom[numTiles];
+		for(int i = 0; i < numTiles; ++i)
+		{
+			randoms[i] = random.split();
+		}
+
+		double[][] tilePoints = new double[numTiles][];
+		if(numTiles > 1)
+		{
+			ForkJoinPool.commonPool().invoke(new TileTask(0, numTiles, numXTiles, numYTiles, randoms, tilePoints));
+		}
+		else
+		{
+			tilePoints[0] = sampleTile(0, 0, 1, 1, randoms[0]);
+		}
+
+		// Join the tiles in order
+		int numValues = 0;
+		for(int i = 0; i < numTiles; ++i)
+		{
+			numValues += tilePoints[i].length;
+		}
+		double[] points = new double[numValues];
+		int offset = 0;
+		for(int i = 0; i < numTiles; ++i)
+		{
+			System.arraycopy(tilePoints[i], 0, points, offset, tilePoints[i].length);
+			offset += tilePoints[i].length;
+		}
+
+		return points;
+	}
+
+	/**
+	 * Samples a single tile
+	 *
+	 * @param tileX The column of the tile
+	 * @param tileY The row of the tile
+	 * @param numXTiles The number of columns
+	 * @param numYTiles The number of rows
+	 * @param random The tile's generator
+	 * @return The tile's points, as x and y pairs
+	 */
+	private double[] sampleTile(int tileX, int tileY, int numXTiles, int numYTiles, SplittableRandom random)
+	{
+		// The part of the tile that points can be in (away from the tiles next to it)
+		double margin = minDistance / 2;
+		double minX = tileX * TILE_SIZE + (tileX > 0 ? margin : 0.0);
+		double minY = tileY * TILE_SIZE + (tileY > 0 ? margin : 0.0);
+		double maxX = tileX < numXTiles - 1 ? ((tileX + 1) * TILE_SIZE) - margin : width;
+		double maxY = tileY < numYTiles - 1 ? ((tileY + 1) * TILE_SIZE) - margin : height;
+		if(maxX <= minX || maxY <= minY)
+		{
+			return new double[0];
+		}
+
+		// Background grid (each cell is small enough to hold at most one point)
+		double cellSize = minDistance / Math.sqrt(2.0);
+		int numColumns = (int)Math.ceil((maxX - minX) / cellSize);
+		int numRows = (int)Math.ceil((maxY - minY) / cellSize);
+		int[] cells = new int[numColumns * numRows];
+		Arrays.fill(cells, -1);
+
+		double[] points = new double[64];
+		int numPoints = 0;
+		int[] active = new int[32];
+		int numActive = 0;
+
+		// The first point (anywhere that's not in the clear circle)
+		double x = 0.0, y = 0.0;
+		boolean found = false;
+		for(int attempt = 0; attempt < ATTEMPTS * ATTEMPTS && !found; ++attempt)
+		{
+			x = minX + (random.nextDouble() * (maxX - minX));
+			y = minY + (random.nextDouble() * (maxY - minY));
+			found = !isCleared(x, y);
+		}
+		if(!found)
+		{
+			return new double[0];
+		}
+
+		while(true)
+		{
+			if(found)
+			{
+				// Add the point
+				if((numPoints + 1) * 2 > points.length)
+				{
+					points = Arrays.copyOf(points, points.length * 2);
+				}
+				points[numPoints * 2] = x;
+				points[(numPoints * 2) + 1] = y;
+				cells[((int)((y - minY) / cellSize) * numColumns) + (int)((x - minX) / cellSize)] = numPoints;
+
+				if(numActive == active.length)
+				{
+					active = Arrays.copyOf(active, numActive * 2);
+				}
+				active[numActive++] = numPoints;
+				++numPoints;
+			}
+
+			if(numActive == 0)
+			{
+				break;
+			}
+
+			// Try to place a new point around a random active one (between 1 and 2 minimum distances away)
+			int slot = random.nextInt(numActive);
+			double centerX = points[active[slot] * 2], centerY = points[(active[slot] * 2) + 1];
+			found = false;
+			for(int attempt = 0; attempt < ATTEMPTS && !found; ++attempt)
+			{
+				double angle = random.nextDouble() * Math.PI * 2;
+				double distance = minDistance * (1.0 + random.nextDouble());
+				x = centerX + (Math.cos(angle) * distance);
+				y = centerY + (Math.sin(angle) * distance);
+				found = x >= minX && x < maxX && y >= minY && y < maxY && !isCleared(x, y) && isFarEnough(x, y, points, cells, numColumns, numRows, minX, minY, cellSize);
+			}
+
+			if(!found)
+			{
+				active[slot] = active[--numActive]; // Nothing fits around this point anymore
+			}
+		}
+
+		return Arrays.copyOf(points, numPoints * 2);
+	}
+
+	/**
+	 * @return If the point is in the clear circle
+	 */
+	private boolean isCleared(double x, double y)
+	{
+		double dx = x - clearX, dy = y - clearY;
+		return (dx * dx) + (dy * dy) < clearRadius * clearRadius;
+	}
+
+	/**
+	 * @return If the point is at least the minimum distance from every point in the tile
+	 */
+	private boolean isFarEnough(double x, double y, double[] points, int[] cells, int numColumns, int numRows, double minX, double minY, double cellSize)
+	{
+		int column = (int)((x - minX) / cellSize);
+		int row = (int)((y - minY) / cellSize);
+		double minDistanceSquared = minDistance * minDistance;
+
+		// Any point that's too close is in one of the 5x5 cells around this one
+		for(int r = Math.max(0, row - 2); r <= Math.min(numRows - 1, row + 2); ++r)
+		{
+			for(int c = Math.max(0, column - 2); c <= Math.min(numColumns - 1, column + 2); ++c)
+			{
+				int other = cells[(r * numColumns) + c];
+				if(other >= 0)
+				{
+					double dx = points[other * 2] - x, dy = points[(other * 2) + 1] - y;
+					if((dx * dx) + (dy * dy) < minDistanceSquared)
+					{
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Samples a range of tiles
+	 *
+	 * @author Aaron Jacobs
+	 */
+	private class TileTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = -4410977432617180826L;
+		private final int first, last, numXTiles, numYTiles;
+		private final SplittableRandom[] randoms;
+		private final double[][] tilePoints;
+
+		public TileTask(int first, int last, int numXTiles, int numYTiles, SplittableRandom[] randoms, double[][] tilePoints)
+		{
+			this.first = first;
+			this.last = last;
+			this.numXTiles = numXTiles;
+			this.numYTiles = numYTiles;
+			this.randoms = randoms;
+			this.tilePoints = tilePoints;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(last - first > 1)
+			{
+				int middle = (first + last) >>> 1;
+				invokeAll(new TileTask(first, middle, numXTiles, numYTiles, randoms, tilePoints), new TileTask(middle, last, numXTiles, numYTiles, randoms, tilePoints));
+				return;
+			}
+
+			tilePoints[first] = sampleTile(first % numXTiles, first / numXTiles, numXTiles, numYTiles, randoms[first]);
+		}
+	}
+}
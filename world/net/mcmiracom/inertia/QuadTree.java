@@ -0,0 +1,276 @@
+package net.mcmiracom.inertia;
+
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut quadtree used to approximate whole-world gravity (far clusters of bodies are treated as a single body at their center of mass)
+ *
+ * @author Aaron Jacobs
+ */
+public class QuadTree
+{
+	private static final int MAX_DEPTH = 24; // Bodies that still share a node at this depth are kept together in one leaf
+	private static final int INITIAL_CAPACITY = 256;
+
+	private double worldSize, openingAngle;
+
+	// Node storage (reused between builds)
+	private int numNodes;
+	private double[] nodeX, nodeY, nodeSize;
+	private double[] nodeMass, nodeMassX, nodeMassY;
+	private int[] nodeChild, nodeBody;
+
+	// Bodies are referenced by their PhysicsState id
+	private PhysicsState state;
+	private int[] bodyNext;
+
+	// Traversal stacks (one per thread, so that bodies can be queried in parallel)
+	private static final ThreadLocal<int[]> stacks = new ThreadLocal<int[]>()
+	{
+		protected int[] initialValue()
+		{
+			return new int[(MAX_DEPTH + 1) * 4];
+		}
+	};
+
+	/**
+	 * @param worldSize The length of the side of the (square) world
+	 * @param openingAngle The opening angle (theta) - larger values approximate more aggressively
+	 */
+	public QuadTree(double worldSize, double openingAngle)
+	{
+		this.worldSize = worldSize;
+		this.openingAngle = openingAngle;
+
+		nodeX = new double[INITIAL_CAPACITY];
+		nodeY = new double[INITIAL_CAPACITY];
+		nodeSize = new double[INITIAL_CAPACITY];
+		nodeMass = new double[INITIAL_CAPACITY];
+		nodeMassX = new double[INITIAL_CAPACITY];
+		nodeMassY = new double[INITIAL_CAPACITY];
+		nodeChild = new int[INITIAL_CAPACITY];
+		nodeBody = new int[INITIAL_CAPACITY];
+
+		bodyNext = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Rebuilds the tree from the active bodies of the state
+	 *
+	 * @param state The state to build the tree from
+	 */
+	public void build(PhysicsState state)
+	{
+		this.state = state;
+		if(bodyNext.length < state.count)
+		{
+			bodyNext = new int[state.bodies.length];
+		}
+
+		numNodes = 0;
+		createNode(0.0, 0.0, worldSize);
+
+		for(int i = 0; i < state.count; ++i)
+		{
+			if(state.active[i])
+			{
+				bodyNext[i] = -1;
+				insert(i);
+			}
+		}
+
+		// Turn the weighted position sums into centers of mass
+		for(int i = 0; i < numNodes; ++i)
+		{
+			if(nodeMass[i] > 0.0)
+			{
+				nodeMassX[i] /= nodeMass[i];
+				nodeMassY[i] /= nodeMass[i];
+			}
+		}
+	}
+
+	/**
+	 * Adds the overall attraction (relative to the whole world) to the body's acceleration (safe to call from multiple threads once built)
+	 *
+	 * @param state The state the tree was built from
+	 * @param id The id of the body who's attraction is to be calculated
+	 */
+	public void calculateAttraction(PhysicsState state, int id)
+	{
+		double x = state.x[id], y = state.y[id];
+		double thetaSquared = openingAngle * openingAngle;
+		int[] stack = stacks.get();
+
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0)
+		{
+			int node = stack[--top];
+			if(nodeMass[node] == 0.0)
+			{
+				continue;
+			}
+
+			if(nodeChild[node] == -1) // Leaf, sum each body exactly
+			{
+				for(int body = nodeBody[node]; body != -1; body = bodyNext[body])
+				{
+					if(body != id)
+					{
+						state.addAttraction(id, state.x[body], state.y[body], state.mass[body]);
+					}
+				}
+				continue;
+			}
+
+			double dx = nodeMassX[node] - x;
+			double dy = nodeMassY[node] - y;
+
+			// If the node is far enough away (and doesn't contain us), treat it as a single body
+			if(!contains(node, x, y) && nodeSize[node] * nodeSize[node] < thetaSquared * ((dx * dx) + (dy * dy)))
+			{
+				state.addAttraction(id, nodeMassX[node], nodeMassY[node], nodeMass[node]);
+			}
+			else // Otherwise, open it up
+			{
+				int child = nodeChild[node];
+				stack[top++] = child;
+				stack[top++] = child + 1;
+				stack[top++] = child + 2;
+				stack[top++] = child + 3;
+			}
+		}
+	}
+
+	/**
+	 * Inserts a body, splitting leaves as required
+	 *
+	 * @param body The id of the body to insert
+	 */
+	private void insert(int body)
+	{
+		double x = state.x[body], y = state.y[body], mass = state.mass[body];
+		int node = 0;
+		int depth = 0;
+
+		while(true)
+		{
+			nodeMass[node] += mass;
+			nodeMassX[node] += mass * x;
+			nodeMassY[node] += mass * y;
+
+			if(nodeChild[node] != -1) // Internal node, keep descending
+			{
+				node = nodeChild[node] + quadrant(node, x, y);
+				++depth;
+				continue;
+			}
+
+			if(nodeBody[node] == -1) // Empty leaf
+			{
+				nodeBody[node] = body;
+				return;
+			}
+
+			if(depth >= MAX_DEPTH) // (Nearly) coincident bodies, share the leaf
+			{
+				bodyNext[body] = nodeBody[node];
+				nodeBody[node] = body;
+				return;
+			}
+
+			// Split the leaf, pushing its existing body down a level
+			int existing = nodeBody[node];
+			nodeBody[node] = -1;
+			subdivide(node);
+
+			int existingChild = nodeChild[node] + quadrant(node, state.x[existing], state.y[existing]);
+			nodeBody[existingChild] = existing;
+			nodeMass[existingChild] = state.mass[existing];
+			nodeMassX[existingChild] = state.mass[existing] * state.x[existing];
+			nodeMassY[existingChild] = state.mass[existing] * state.y[existing];
+
+			node = nodeChild[node] + quadrant(node, x, y);
+			++depth;
+		}
+	}
+
+	/**
+	 * Creates the four children of a node (stored consecutively)
+	 *
+	 * @param node The node to subdivide
+	 */
+	private void subdivide(int node)
+	{
+		double halfSize = nodeSize[node] / 2;
+		double x = nodeX[node], y = nodeY[node];
+
+		int firstChild = createNode(x, y, halfSize);
+		createNode(x + halfSize, y, halfSize);
+		createNode(x, y + halfSize, halfSize);
+		createNode(x + halfSize, y + halfSize, halfSize);
+
+		nodeChild[node] = firstChild;
+	}
+
+	/**
+	 * @param node The node to check
+	 * @param x The x coordinate of the point
+	 * @param y The y coordinate of the point
+	 * @return The child offset (0 - 3) of the quadrant that contains the point
+	 */
+	private int quadrant(int node, double x, double y)
+	{
+		double halfSize = nodeSize[node] / 2;
+		int quadrant = 0;
+		if(x >= nodeX[node] + halfSize)
+		{
+			quadrant += 1;
+		}
+		if(y >= nodeY[node] + halfSize)
+		{
+			quadrant += 2;
+		}
+		return quadrant;
+	}
+
+	/**
+	 * @return If the node's square contains the point
+	 */
+	private boolean contains(int node, double x, double y)
+	{
+		return x >= nodeX[node] && x < nodeX[node] + nodeSize[node] && y >= nodeY[node] && y < nodeY[node] + nodeSize[node];
+	}
+
+	/**
+	 * @return The index of the new (empty) node
+	 */
+	private int createNode(double x, double y, double size)
+	{
+		if(numNodes == nodeX.length)
+		{
+			int capacity = numNodes * 2;
+			nodeX = Arrays.copyOf(nodeX, capacity);
+			nodeY = Arrays.copyOf(nodeY, capacity);
+			nodeSize = Arrays.copyOf(nodeSize, capacity);
+			nodeMass = Arrays.copyOf(nodeMass, capacity);
+			nodeMassX = Arrays.copyOf(nodeMassX, capacity);
+			nodeMassY = Arrays.copyOf(nodeMassY, capacity);
+			nodeChild = Arrays.copyOf(nodeChild, capacity);
+			nodeBody = Arrays.copyOf(nodeBody, capacity);
+		}
+
+		int node = numNodes++;
+		nodeX[node] = x;
+		nodeY[node] = y;
+		nodeSize[node] = size;
+		nodeMass[node] = 0.0;
+		nodeMassX[node] = 0.0;
+		nodeMassY[node] = 0.0;
+		nodeChild[node] = -1;
+		nodeBody[node] = -1;
+
+		return node;
+	}
+}
@@ -1,7 +1,9 @@
 package net.mcmiracom.inertia;
 
 import java.awt.Graphics2D;
+import java.awt.Transparency;
 import java.awt.geom.Rectangle2D;
+import java.util.SplittableRandom;
 
 /**
  * Represents the world (bounds and background)
@@ -11,103 +13,97 @@ import java.awt.geom.Rectangle2D;
 public class World
 {
 	protected Rectangle2D bounds;
+	protected final long seed;
+	protected final SplittableRandom random; // Used to generate the world (so the same seed always gives the same world)
+
+	// Cached layers (only used by the paint code)
+	private CachedLayer backLayer, foregroundLayer;
+	private int layerMidgroundX, layerMidgroundY; // Where the midground is drawn in the back layer
 
 	/**
-	 * Sets the bounds of the world to the defaults set in the Globals class, and loads the background images
+	 * Sets the bounds of the world to the defaults set in the Globals class
+	 * 
+	 * @param seed The seed of the world's random generator
 	 */
-	public World()
+	public World(long seed)
 	{
 		bounds = new Rectangle2D.Double(0.0, 0.0, Globals.levelSize, Globals.levelSize);
+		this.seed = seed;
+		random = new SplittableRandom(seed);
 	}
 
 	/**
 	 * Draws the 3 background layers to the screen, relative to the camera
 	 * 
+	 * The background and midground are drawn together into a cached layer, which is only redrawn when the (slow moving)
+	 * midground moves by a pixel. The foreground is tiled once into a layer a tile bigger than the screen, so that any
+	 * scroll position can be copied out of it in one piece.
+	 * 
 	 * @param canvas2D The Graphics2D object to which the world will be drawn
 	 * @param camera The camera that the world will be drawn relative to
 	 */
-	public void draw(Graphics2D canvas2D)
+	public void draw(Graphics2D canvas2D, Camera camera)
 	{
-		// Draw the background (only what fits on the screen)
-		canvas2D.drawImage(Globals.background, 0, 0, Globals.panelWidth, Globals.panelHeight, 0, 0, Globals.panelWidth, Globals.panelHeight, null);
-
-		// Calculate location of the midground texture
-		int midgroundX = (int)((((Globals.levelSize / 2) - (Globals.midground.getWidth() / 2)) - Globals.camera.bounds.getX()) * 0.04) + (Globals.panelWidth / 2) - (Globals.midground.getWidth() / 2);
-		int midgroundY = (int)((((Globals.levelSize / 2) - (Globals.midground.getHeight() / 2)) - Globals.camera.bounds.getY()) * 0.04) + (Globals.panelHeight / 2) - (Globals.midground.getHeight() / 2);
-		int midgroundX1Clip = 0, midgroundX2Clip = 0;
-		int midgroundY1Clip = 0, midgroundY2Clip = 0;
-
-		// Generate clipping regions
-		if(midgroundX < 0)
-		{
-			midgroundX1Clip = -midgroundX;
-		}
-		if(midgroundX + Globals.midground.getWidth() > Globals.panelWidth)
+		if(backLayer == null)
 		{
-			midgroundX2Clip = (midgroundX + Globals.midground.getWidth()) - Globals.panelWidth;
+			createLayers();
 		}
-		if(midgroundY < 0)
-		{
-			midgroundY1Clip = -midgroundY;
-		}
-		if(midgroundY + Globals.midground.getHeight() > Globals.panelHeight)
+
+		// Calculate location of the midground texture
+		int midgroundX = (int)((((Globals.levelSize / 2) - (Globals.midground.getWidth() / 2)) - camera.bounds.getX()) * 0.04) + (Globals.panelWidth / 2) - (Globals.midground.getWidth() / 2);
+		int midgroundY = (int)((((Globals.levelSize / 2) - (Globals.midground.getHeight() / 2)) - camera.bounds.getY()) * 0.04) + (Globals.panelHeight / 2) - (Globals.midground.getHeight() / 2);
+		if(midgroundX != layerMidgroundX || midgroundY != layerMidgroundY)
 		{
-			midgroundY2Clip = (midgroundY + Globals.midground.getHeight()) - Globals.panelHeight;
+			layerMidgroundX = midgroundX;
+			layerMidgroundY = midgroundY;
+			backLayer.invalidate();
 		}
 
-		// Draw the midground (only what's on screen)
-		canvas2D.drawImage(Globals.midground, midgroundX + midgroundX1Clip, midgroundY + midgroundY1Clip, (midgroundX + Globals.midground.getWidth()) - midgroundX2Clip, (midgroundY + Globals.midground.getHeight()) - midgroundY2Clip, midgroundX1Clip, midgroundY1Clip, Globals.midground.getWidth() - midgroundX2Clip, Globals.midground.getHeight() - midgroundY2Clip, null);
+		// Draw the background and midground
+		backLayer.draw(canvas2D, 0, 0);
 
-		// Set up variables for the tiling foreground
+		// Draw the tiling foreground (the part of the tiled layer that lines up with the camera)
 		int tileWidth = Globals.foreground.getWidth();
 		int tileHeight = Globals.foreground.getHeight();
-		int xTile = ((int)Globals.camera.bounds.getX()) / tileWidth; // Which tile number (across the screen) we are on
-		int yTile = ((int)Globals.camera.bounds.getY()) / tileHeight; // Which tile number (down the screen) we are on
-		int foregroundXPos = -(int)(Globals.camera.bounds.getX() + 0.5);
-		int foregroundYPos = -(int)(Globals.camera.bounds.getY() + 0.5);
-		int numXTiles = (Globals.panelWidth / Globals.foreground.getWidth()) + 2; // The number of times the image fits on screen, plus on extra on the left and one extra on the right
-		int numYTiles = (Globals.panelHeight / Globals.foreground.getHeight()) + 2; // The number of times the image fits on screen, plus on extra on the top and one extra on the bottom
-
-		for(int i = 0; i < numXTiles; ++i) // For each column
+		int foregroundX = ((int)(camera.bounds.getX() + 0.5)) % tileWidth;
+		int foregroundY = ((int)(camera.bounds.getY() + 0.5)) % tileHeight;
+		if(foregroundX < 0)
 		{
-			for(int j = 0; j < numYTiles; ++j) // For each row
-			{
-				// Calculate the coordinates of the tile
-				int x = foregroundXPos + (tileWidth * (xTile + i)); // Our upper left x (relative to the screen)
-				int y = foregroundYPos + (tileHeight * (yTile + j)); // Our upper left y (relative to the screen)
-				int x1Clip = 0, x2Clip = 0; // The amount to be clipped off from the left, right
-				int y1Clip = 0, y2Clip = 0; // The amount to be clipped off from the top, bottom
+			foregroundX += tileWidth;
+		}
+		if(foregroundY < 0)
+		{
+			foregroundY += tileHeight;
+		}
+		foregroundLayer.draw(canvas2D, 0, 0, foregroundX, foregroundY, Globals.panelWidth, Globals.panelHeight);
+	}
 
-				// Generate the clipping region of the tile
-				if(x < 0)
-				{
-					x1Clip = -x;
-				}
-				if(x + tileWidth > Globals.panelWidth)
-				{
-					x2Clip = (x + tileWidth) - Globals.panelWidth;
-				}
-				if(y < 0)
-				{
-					y1Clip = -y;
-				}
-				if(y + tileHeight > Globals.panelHeight)
-				{
-					y2Clip = (y + tileHeight) - Globals.panelHeight;
-				}
+	/**
+	 * Creates the cached layers (on first draw, since only the paint code uses them)
+	 */
+	private void createLayers()
+	{
+		backLayer = new CachedLayer(Globals.panelWidth, Globals.panelHeight, Transparency.OPAQUE) {
+			protected void paint(Graphics2D layer2D)
+			{
+				layer2D.drawImage(Globals.background, 0, 0, null);
+				layer2D.drawImage(Globals.midground, layerMidgroundX, layerMidgroundY, null);
+			}
+		};
 
-				// Don't draw if off screen
-				if(x > Globals.panelWidth
-						|| x + x1Clip < 0
-						|| y > Globals.panelHeight
-						|| y + y1Clip < 0)
+		final int tileWidth = Globals.foreground.getWidth();
+		final int tileHeight = Globals.foreground.getHeight();
+		foregroundLayer = new CachedLayer(Globals.panelWidth + tileWidth, Globals.panelHeight + tileHeight, Transparency.TRANSLUCENT) {
+			protected void paint(Graphics2D layer2D)
+			{
+				for(int x = 0; x < width; x += tileWidth)
 				{
-					continue;
+					for(int y = 0; y < height; y += tileHeight)
+					{
+						layer2D.drawImage(Globals.foreground, x, y, null);
+					}
 				}
-
-				// Draw the tile (only what's on screen)
-				canvas2D.drawImage(Globals.foreground, x + x1Clip, y + y1Clip, (x + tileWidth) - x2Clip, (y + tileHeight) - y2Clip, x1Clip, y1Clip, tileWidth - x2Clip, tileHeight - y2Clip, null);
 			}
-		}
+		};
 	}
 }